@@ -0,0 +1,131 @@
+/*******************************************************************************
+ * Montpellier Biology Developpment
+ * This project aims to create a tool to process and analyse data of a project in the field of Biology.
+ * Copyright (C) 2012, Nicolas Fourel
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Authors:
+ * 	Nicolas Fourel <nicolas.fourel@live.fr>
+ * 	Romain Desprat <rdesprat@gmail.com>
+ ******************************************************************************/
+package core.action;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import core.action.file.LineFileReader;
+import core.action.file.LinePipe;
+
+
+/**
+ * The {@link Pipeline} runs chained {@link LineFileReader} over a single read of the input file of the first one.
+ * Every stage writes its lines in a {@link LinePipe} giving them by batches to the next stage, instead of writing its output file:
+ * the intermediate files are neither written nor read again, unless a tap file is given for them. The last stage writes its own output file.
+ * The input files of the next stages are not read, and the lines are processed by the thread reading the input file.
+ * @author Nicolas Fourel
+ * @version 0.1
+ */
+public class Pipeline extends Action {
+
+	/** Generated default serial version ID */
+	private static final long serialVersionUID = -3094862419380257384L;
+
+	private final List<LineFileReader<?>> stages;	// The stages, the first one reads the input file.
+	private final List<File> tapFiles;				// The tap files of the lines given to the stages, by stage (null for none).
+	private boolean isReady;						// Says if every pipe is open.
+
+
+	/**
+	 * Constructor of {@link Pipeline}
+	 * @param firstStage the stage reading the input file
+	 */
+	public Pipeline (LineFileReader<?> firstStage) {
+		stages = new ArrayList<>();
+		tapFiles = new ArrayList<>();
+		stages.add(firstStage);
+		tapFiles.add(null);
+		actionName = "Pipeline: " + ((Action) firstStage).actionName;
+		isReady = false;
+	}
+
+
+	/**
+	 * Adds a stage processing the lines written by the previous one
+	 * @param stage a stage (its input file is not read)
+	 */
+	public void add (LineFileReader<?> stage) {
+		add(stage, null);
+	}
+
+
+	/**
+	 * Adds a stage processing the lines written by the previous one
+	 * @param stage		a stage (its input file is not read)
+	 * @param tapFile	the file the lines given to the stage are also written to (null for none)
+	 */
+	public void add (LineFileReader<?> stage, File tapFile) {
+		stages.add(stage);
+		tapFiles.add(tapFile);
+		actionName += " > " + ((Action) stage).actionName;
+	}
+
+
+	@Override
+	protected void doFirst() {
+		isReady = true;
+		for (int i = 1; i < stages.size(); i++) {
+			LinePipe pipe = LinePipe.open(stages.get(i), tapFiles.get(i));
+			isReady &= pipe != null;
+			stages.get(i - 1).setOutputSink(pipe);
+		}
+		for (Action stage: stages) {
+			stage.doFirst();
+		}
+	}
+
+
+	@Override
+	protected Object compute() {
+		if (isReady) {
+			Action firstStage = stages.get(0);
+			firstStage.compute();
+		}
+		return null;
+	}
+
+
+	/**
+	 * Ends the stages in order: a stage closing its pipe gives its last lines to the next stage before the next stage ends.
+	 */
+	@Override
+	protected void doAtTheEnd() {
+		for (Action stage: stages) {
+			stage.doAtTheEnd();
+		}
+		for (int i = 1; i < stages.size(); i++) {
+			stages.get(i - 1).setOutputSink(null);
+		}
+	}
+
+
+	/**
+	 * @return the number of stages
+	 */
+	public int size () {
+		return stages.size();
+	}
+
+}
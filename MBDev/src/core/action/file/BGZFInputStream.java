@@ -0,0 +1,242 @@
+/*******************************************************************************
+ * Montpellier Biology Developpment
+ * This project aims to create a tool to process and analyse data of a project in the field of Biology.
+ * Copyright (C) 2012, Nicolas Fourel
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Authors:
+ * 	Nicolas Fourel <nicolas.fourel@live.fr>
+ * 	Romain Desprat <rdesprat@gmail.com>
+ ******************************************************************************/
+package core.action.file;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+
+/**
+ * The {@link BGZFInputStream} decompresses a BGZF file (blocked gzip, as used for BAM or tabix files).
+ * The compressed blocks are read in order and inflated ahead on several threads, the stream gives them back in the order of the file.
+ * @author Nicolas Fourel
+ * @version 0.1
+ */
+public class BGZFInputStream extends InputStream {
+
+	private static final int HEADER_LENGTH = 12;	// Length of a gzip header before its extra field.
+	private static final int TRAILER_LENGTH = 8;	// Length of a gzip trailer (CRC32 and uncompressed size).
+	private static final int MAX_BLOCK_SIZE = 65536;	// Maximum uncompressed size of a BGZF block.
+
+	private final InputStream in;							// The compressed input stream.
+	private final ExecutorService executor;					// The threads inflating the blocks.
+	private final int maxPendingBlocks;						// The maximum number of blocks inflated ahead.
+	private final LinkedList<Future<byte[]>> pendingBlocks;	// The blocks being inflated, in the order of the file.
+	private final byte[] header;							// The buffer for the block headers.
+	private byte[] currentBlock;							// The current inflated block.
+	private int position;									// The position in the current inflated block.
+	private boolean isEndOfInput;							// Says if the last compressed block has been read.
+
+
+	/**
+	 * Constructor of {@link BGZFInputStream}
+	 * @param in			the compressed input stream
+	 * @param threadNumber	the number of threads inflating the blocks
+	 */
+	public BGZFInputStream (InputStream in, int threadNumber) {
+		this.in = in;
+		threadNumber = Math.max(1, threadNumber);
+		this.executor = Executors.newFixedThreadPool(threadNumber);
+		this.maxPendingBlocks = threadNumber * 4;
+		this.pendingBlocks = new LinkedList<>();
+		this.header = new byte[HEADER_LENGTH];
+		this.currentBlock = new byte[0];
+		this.position = 0;
+		this.isEndOfInput = false;
+	}
+
+
+	@Override
+	public int read () throws IOException {
+		if (!ensureData()) {
+			return -1;
+		}
+		return currentBlock[position++] & 0xFF;
+	}
+
+
+	@Override
+	public int read (byte[] data, int offset, int length) throws IOException {
+		if (length == 0) {
+			return 0;
+		}
+		if (!ensureData()) {
+			return -1;
+		}
+		int read = Math.min(length, currentBlock.length - position);
+		System.arraycopy(currentBlock, position, data, offset, read);
+		position += read;
+		return read;
+	}
+
+
+	@Override
+	public int available () throws IOException {
+		return currentBlock.length - position;
+	}
+
+
+	@Override
+	public void close () throws IOException {
+		executor.shutdownNow();
+		in.close();
+	}
+
+
+	/**
+	 * Moves to the next non empty inflated block if the current one has been read
+	 * @return true if there is data to read, false at the end of the stream
+	 * @throws IOException
+	 */
+	private boolean ensureData () throws IOException {
+		while (position >= currentBlock.length) {
+			while (!isEndOfInput && (pendingBlocks.size() < maxPendingBlocks)) {
+				byte[] compressedBlock = readCompressedBlock();
+				if (compressedBlock == null) {
+					isEndOfInput = true;
+				} else {
+					pendingBlocks.add(executor.submit(new BlockInflater(compressedBlock)));
+				}
+			}
+			if (pendingBlocks.isEmpty()) {
+				return false;
+			}
+			try {
+				currentBlock = pendingBlocks.removeFirst().get();
+			} catch (InterruptedException e) {
+				throw new IOException(e);
+			} catch (ExecutionException e) {
+				throw new IOException(e.getCause());
+			}
+			position = 0;
+		}
+		return true;
+	}
+
+
+	/**
+	 * Reads the next compressed block of the file
+	 * @return the deflated data of the block followed by its trailer, null at the end of the file
+	 * @throws IOException
+	 */
+	private byte[] readCompressedBlock () throws IOException {
+		int read = FileCompression.readFully(in, header, 0, HEADER_LENGTH);
+		if (read == 0) {
+			return null;
+		}
+		if ((read < HEADER_LENGTH) || !FileCompression.isGzipHeader(header) || ((header[3] & 0x04) == 0)) {
+			throw new IOException("Invalid BGZF block header.");
+		}
+
+		int extraLength = FileCompression.readUnsignedShort(header, 10);
+		byte[] extra = new byte[extraLength];
+		if (FileCompression.readFully(in, extra, 0, extraLength) < extraLength) {
+			throw new IOException("Truncated BGZF block header.");
+		}
+		int blockSize = FileCompression.getBlockSize(extra, 0, extraLength);
+		if (blockSize == -1) {
+			throw new IOException("Missing BGZF block size.");
+		}
+
+		int remaining = (blockSize + 1) - HEADER_LENGTH - extraLength;
+		if (remaining < TRAILER_LENGTH) {
+			throw new IOException("Invalid BGZF block size.");
+		}
+		byte[] compressedBlock = new byte[remaining];
+		if (FileCompression.readFully(in, compressedBlock, 0, remaining) < remaining) {
+			throw new IOException("Truncated BGZF block.");
+		}
+		return compressedBlock;
+	}
+
+
+	/**
+	 * Inflates a compressed block and checks it against its trailer.
+	 * @author Nicolas Fourel
+	 * @version 0.1
+	 */
+	private static class BlockInflater implements Callable<byte[]> {
+
+		private final byte[] compressedBlock;	// The deflated data of the block followed by its trailer.
+
+
+		/**
+		 * Constructor of {@link BlockInflater}
+		 * @param compressedBlock the deflated data of the block followed by its trailer
+		 */
+		private BlockInflater (byte[] compressedBlock) {
+			this.compressedBlock = compressedBlock;
+		}
+
+
+		@Override
+		public byte[] call () throws IOException {
+			int dataLength = compressedBlock.length - TRAILER_LENGTH;
+			int expectedCrc = FileCompression.readInt(compressedBlock, dataLength);
+			int size = FileCompression.readInt(compressedBlock, dataLength + 4);
+			if ((size < 0) || (size > MAX_BLOCK_SIZE)) {
+				throw new IOException("Invalid BGZF block: uncompressed size of " + size + " bytes.");
+			}
+			byte[] block = new byte[size];
+
+			Inflater inflater = new Inflater(true);
+			try {
+				inflater.setInput(compressedBlock, 0, dataLength);
+				int inflated = 0;
+				while ((inflated < size) && !inflater.finished()) {
+					int read = inflater.inflate(block, inflated, size - inflated);
+					if ((read == 0) && (inflater.needsInput() || inflater.needsDictionary())) {
+						break;
+					}
+					inflated += read;
+				}
+				// the data must end with the block: a longer one would be cut silently
+				if ((inflated != size) || (!inflater.finished() && (inflater.inflate(new byte[1]) > 0))) {
+					throw new IOException("Invalid BGZF block: unexpected uncompressed size.");
+				}
+			} catch (DataFormatException e) {
+				throw new IOException(e);
+			} finally {
+				inflater.end();
+			}
+
+			CRC32 crc = new CRC32();
+			crc.update(block, 0, size);
+			if ((int) crc.getValue() != expectedCrc) {
+				throw new IOException("Invalid BGZF block: CRC mismatch.");
+			}
+			return block;
+		}
+
+	}
+
+}
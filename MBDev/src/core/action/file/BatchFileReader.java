@@ -0,0 +1,43 @@
+/*******************************************************************************
+ * Montpellier Biology Developpment
+ * This project aims to create a tool to process and analyse data of a project in the field of Biology.
+ * Copyright (C) 2012, Nicolas Fourel
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Authors:
+ * 	Nicolas Fourel <nicolas.fourel@live.fr>
+ * 	Romain Desprat <rdesprat@gmail.com>
+ ******************************************************************************/
+package core.action.file;
+
+import core.fileLine.LineBatch;
+
+
+/**
+ * A {@link BatchFileReader} receives the lines of a file by batches instead of one by one.
+ * The {@link FileExtractor} gives batches to such readers, other readers still receive lines through {@link FileReader#processLine(String)}.
+ * @author Nicolas Fourel
+ * @version 0.1
+ */
+public interface BatchFileReader extends FileReader {
+
+	/**
+	 * Process a batch of consecutive lines from the file.
+	 * The batch must not be kept once the method returns.
+	 * @param batch a batch of lines
+	 */
+	public void processBatch (LineBatch batch);
+
+}
@@ -0,0 +1,78 @@
+/*******************************************************************************
+ * Montpellier Biology Developpment
+ * This project aims to create a tool to process and analyse data of a project in the field of Biology.
+ * Copyright (C) 2012, Nicolas Fourel
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Authors:
+ * 	Nicolas Fourel <nicolas.fourel@live.fr>
+ * 	Romain Desprat <rdesprat@gmail.com>
+ ******************************************************************************/
+package core.action.file;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.Callable;
+
+import core.fileLine.LineBatch;
+
+
+/**
+ * Reads a {@link FileChunk} into a buffer with a positional read and splits it in lines and columns.
+ * Several parsers can run at the same time on different chunks of the same file.
+ * The buffer can be given back by the caller once the batch has been processed, it is then reused for another chunk.
+ * @author Nicolas Fourel
+ * @version 0.1
+ */
+public class ChunkParser implements Callable<LineBatch> {
+
+	private final FileChannel channel;	// The channel of the file.
+	private final FileChunk chunk;		// The chunk to parse.
+	private final byte[] buffer;		// The buffer to read the chunk in (null or too small to allocate a new one).
+
+
+	/**
+	 * Constructor of {@link ChunkParser}
+	 * @param channel	the channel of the file
+	 * @param chunk		the chunk to parse
+	 * @param buffer	the buffer to read the chunk in (null or too small to allocate a new one)
+	 */
+	public ChunkParser (FileChannel channel, FileChunk chunk, byte[] buffer) {
+		this.channel = channel;
+		this.chunk = chunk;
+		this.buffer = buffer;
+	}
+
+
+	@Override
+	public LineBatch call() throws Exception {
+		byte[] data = buffer;
+		if ((data == null) || (data.length < chunk.getLength())) {
+			data = new byte[chunk.getLength()];
+		}
+		ByteBuffer target = ByteBuffer.wrap(data, 0, chunk.getLength());
+		long position = chunk.getStart();
+		while (target.hasRemaining()) {
+			int read = channel.read(target, position);
+			if (read == -1) {
+				throw new IOException("The file ends before the chunk " + chunk.getIndex() + ".");
+			}
+			position += read;
+		}
+		return new LineBatch(data, 0, chunk.getLength());
+	}
+
+}
@@ -0,0 +1,147 @@
+/*******************************************************************************
+ * Montpellier Biology Developpment
+ * This project aims to create a tool to process and analyse data of a project in the field of Biology.
+ * Copyright (C) 2012, Nicolas Fourel
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Authors:
+ * 	Nicolas Fourel <nicolas.fourel@live.fr>
+ * 	Romain Desprat <rdesprat@gmail.com>
+ ******************************************************************************/
+package core.action.file;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * A {@link FileChunk} is a region of a file that starts at the beginning of a line and stops right after a line end (or at the end of the file).
+ * Chunks are small enough to be read in a single array, so files bigger than 2 GB can be processed chunk by chunk.
+ * @author Nicolas Fourel
+ * @version 0.1
+ */
+public class FileChunk {
+
+	private static final int SCAN_LENGTH = 4096;	// Number of bytes read at a time when looking for a line end.
+
+	private final int index;		// The index of the chunk in the file.
+	private final long start;		// The offset of the first byte of the chunk.
+	private final int length;		// The number of bytes of the chunk.
+
+
+	/**
+	 * Constructor of {@link FileChunk}
+	 * @param index		the index of the chunk in the file
+	 * @param start		the offset of the first byte of the chunk
+	 * @param length	the number of bytes of the chunk
+	 */
+	public FileChunk (int index, long start, int length) {
+		this.index = index;
+		this.start = start;
+		this.length = length;
+	}
+
+
+	/**
+	 * Split a file in chunks aligned on line ends
+	 * @param channel	the channel of the file
+	 * @param chunkSize	the expected size of a chunk (a chunk can be longer in order to end on a line end)
+	 * @return the list of chunks covering the whole file
+	 * @throws IOException
+	 */
+	public static List<FileChunk> split (FileChannel channel, int chunkSize) throws IOException {
+		List<FileChunk> chunks = new ArrayList<>();
+		long fileSize = channel.size();
+		ByteBuffer scanBuffer = ByteBuffer.allocate(SCAN_LENGTH);
+		long start = 0;
+		while (start < fileSize) {
+			long stop = start + chunkSize;
+			if (stop >= fileSize) {
+				stop = fileSize;
+			} else {
+				stop = getNextLineStart(channel, stop, scanBuffer);
+			}
+
+			long length = stop - start;
+			if (length > Integer.MAX_VALUE) {
+				throw new IOException("A line of the file is too long to be read in a chunk (offset " + start + ").");
+			}
+			chunks.add(new FileChunk(chunks.size(), start, (int) length));
+			start = stop;
+		}
+		return chunks;
+	}
+
+
+	/**
+	 * @param channel		the channel of the file
+	 * @param offset		an offset in the file
+	 * @param scanBuffer	a buffer used to read the file
+	 * @return the offset of the first line starting at or after the given offset (the size of the file if there is none)
+	 * @throws IOException
+	 */
+	private static long getNextLineStart (FileChannel channel, long offset, ByteBuffer scanBuffer) throws IOException {
+		long position = offset - 1;		// the previous byte may already be a line end
+		long fileSize = channel.size();
+		boolean isAfterCarriageReturn = false;	// the previous byte is a carriage return
+		while (position < fileSize) {
+			scanBuffer.clear();
+			int read = channel.read(scanBuffer, position);
+			if (read <= 0) {
+				break;
+			}
+			for (int i = 0; i < read; i++) {
+				byte current = scanBuffer.get(i);
+				if (current == '\n') {
+					return position + i + 1;
+				}
+				if (isAfterCarriageReturn) {		// a carriage return alone ends a line
+					return position + i;
+				}
+				isAfterCarriageReturn = current == '\r';
+			}
+			position += read;
+		}
+		return fileSize;
+	}
+
+
+	/**
+	 * @return the index of the chunk in the file
+	 */
+	public int getIndex() {
+		return index;
+	}
+
+
+	/**
+	 * @return the offset of the first byte of the chunk
+	 */
+	public long getStart() {
+		return start;
+	}
+
+
+	/**
+	 * @return the number of bytes of the chunk
+	 */
+	public int getLength() {
+		return length;
+	}
+
+}
@@ -0,0 +1,169 @@
+/*******************************************************************************
+ * Montpellier Biology Developpment
+ * This project aims to create a tool to process and analyse data of a project in the field of Biology.
+ * Copyright (C) 2012, Nicolas Fourel
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Authors:
+ * 	Nicolas Fourel <nicolas.fourel@live.fr>
+ * 	Romain Desprat <rdesprat@gmail.com>
+ ******************************************************************************/
+package core.action.file;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+
+
+/**
+ * The {@link FileCompression} detects the compression of a file from its first bytes and opens a decompressing stream on it.
+ * BGZF files (blocked gzip) are recognized through the "BC" extra field of their first block.
+ * @author Nicolas Fourel
+ * @version 0.1
+ */
+public class FileCompression {
+
+	public static final int NONE = 0;	// The file is not compressed.
+	public static final int GZIP = 1;	// The file is a gzip file.
+	public static final int BGZF = 2;	// The file is a BGZF file, made of independent gzip blocks.
+
+	private static final int BUFFER_SIZE = 64 * 1024;	// Size of the buffers of the input streams (in bytes).
+
+
+	/**
+	 * @param file a file
+	 * @return the compression of the file ({@link #NONE}, {@link #GZIP} or {@link #BGZF})
+	 * @throws IOException
+	 */
+	public static int getCompression (File file) throws IOException {
+		InputStream in = new FileInputStream(file);
+		try {
+			byte[] header = new byte[12];
+			if ((readFully(in, header, 0, 12) < 12) || !isGzipHeader(header)) {
+				return NONE;
+			}
+			if ((header[3] & 0x04) == 0) {			// no extra field
+				return GZIP;
+			}
+			int extraLength = readUnsignedShort(header, 10);
+			byte[] extra = new byte[extraLength];
+			if (readFully(in, extra, 0, extraLength) < extraLength) {
+				return GZIP;
+			}
+			if (getBlockSize(extra, 0, extraLength) == -1) {
+				return GZIP;
+			}
+			return BGZF;
+		} finally {
+			in.close();
+		}
+	}
+
+
+	/**
+	 * Opens a stream giving the decompressed content of a file
+	 * @param file			a file
+	 * @param compression	the compression of the file
+	 * @param threadNumber	the number of threads inflating the blocks of a BGZF file
+	 * @return the input stream
+	 * @throws IOException
+	 */
+	public static InputStream openStream (File file, int compression, int threadNumber) throws IOException {
+		switch (compression) {
+		case GZIP:
+			return new GZIPInputStream(new FileInputStream(file), BUFFER_SIZE);
+		case BGZF:
+			return new BGZFInputStream(new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE), threadNumber);
+		default:
+			return new FileInputStream(file);
+		}
+	}
+
+
+	/**
+	 * @param header the first 12 bytes of a gzip member
+	 * @return true if the bytes start a gzip member compressed with deflate
+	 */
+	protected static boolean isGzipHeader (byte[] header) {
+		return ((header[0] & 0xFF) == 0x1F) && ((header[1] & 0xFF) == 0x8B) && (header[2] == 8);
+	}
+
+
+	/**
+	 * Looks for the BGZF subfield in the extra field of a gzip header
+	 * @param extra		array containing the extra field
+	 * @param start		index of the first byte of the extra field
+	 * @param length	length of the extra field
+	 * @return the total size of the block minus 1 (BSIZE), -1 if the extra field has no BGZF subfield
+	 */
+	protected static int getBlockSize (byte[] extra, int start, int length) {
+		int index = start;
+		int stop = start + length;
+		while ((index + 4) <= stop) {
+			int subfieldLength = readUnsignedShort(extra, index + 2);
+			if ((extra[index] == 'B') && (extra[index + 1] == 'C') && (subfieldLength == 2) && ((index + 6) <= stop)) {
+				return readUnsignedShort(extra, index + 4);
+			}
+			index += 4 + subfieldLength;
+		}
+		return -1;
+	}
+
+
+	/**
+	 * @param data	an array
+	 * @param index	index of the first byte of the value
+	 * @return the little-endian unsigned short value
+	 */
+	protected static int readUnsignedShort (byte[] data, int index) {
+		return (data[index] & 0xFF) | ((data[index + 1] & 0xFF) << 8);
+	}
+
+
+	/**
+	 * @param data	an array
+	 * @param index	index of the first byte of the value
+	 * @return the little-endian int value
+	 */
+	protected static int readInt (byte[] data, int index) {
+		return readUnsignedShort(data, index) | (readUnsignedShort(data, index + 2) << 16);
+	}
+
+
+	/**
+	 * Reads bytes until the array is filled or the end of the stream is reached
+	 * @param in		the input stream
+	 * @param data		the array to fill
+	 * @param offset	index of the first byte to fill
+	 * @param length	number of bytes to read
+	 * @return the number of bytes read
+	 * @throws IOException
+	 */
+	protected static int readFully (InputStream in, byte[] data, int offset, int length) throws IOException {
+		int total = 0;
+		while (total < length) {
+			int read = in.read(data, offset + total, length - total);
+			if (read == -1) {
+				return total;
+			}
+			total += read;
+		}
+		return total;
+	}
+
+}
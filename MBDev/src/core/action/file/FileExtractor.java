@@ -22,22 +22,42 @@
  ******************************************************************************/
 package core.action.file;
 
-import java.io.BufferedReader;
-import java.io.DataInputStream;
-import java.io.FileInputStream;
-import java.io.InputStreamReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import core.fileLine.LineBatch;
 import core.util.Utils;
 
 
 /**
+ * The {@link FileExtractor} reads a file by batches of lines, gzip and BGZF files being decompressed on the fly.
+ * A {@link BatchFileReader} receives the batches, any other {@link FileReader} receives their lines one by one.
  * @author Nicolas Fourel
  * @version 0.1
  */
 public class FileExtractor {
 
+	public static final int STREAM_MODE = 0;	// Read the file block by block through a stream.
+	public static final int CHUNK_MODE = 1;		// Read the file chunk by chunk with positional reads and split the chunks in lines on several threads (compressed files are always streamed).
+
+	private static final int DEFAULT_CHUNK_SIZE = 8 * 1024 * 1024;	// Default size of the chunks in chunk mode (in bytes).
+	private static final int DEFAULT_BLOCK_SIZE = 4 * 1024 * 1024;	// Default size of the blocks read in stream mode (in bytes).
+
 	private final FileReader reader;	// The file reader.
 	private int lineLimit;				// The limit number of line to read (infinite = -1).
+	private int readingMode;			// The reading mode (stream or chunk).
+	private int threadNumber;			// The number of threads parsing chunks in chunk mode or inflating BGZF blocks.
+	private int chunkSize;				// The size of the chunks in chunk mode.
+	private boolean hasFailed;			// Says if the last reading of the file has failed.
 	protected int currentLineNumber;	// The current line number.
 
 
@@ -48,6 +68,9 @@ public class FileExtractor {
 	public FileExtractor (FileReader reader) {
 		this.reader = reader;
 		this.lineLimit = -1;
+		this.readingMode = STREAM_MODE;
+		this.threadNumber = Runtime.getRuntime().availableProcessors();
+		this.chunkSize = DEFAULT_CHUNK_SIZE;
 	}
 
 
@@ -55,37 +78,175 @@ public class FileExtractor {
 	 * Read the file
 	 */
 	public void compute() {
+		hasFailed = false;
 		if (Utils.isValidFile(reader.getFile())) {
-			try{
-				// Open the input streams
-				FileInputStream fstream = new FileInputStream(reader.getFile());
-				DataInputStream in = new DataInputStream(fstream);
-				InputStreamReader isr = new InputStreamReader(in);
-				BufferedReader br = new BufferedReader(isr);
+			BatchFileReader batchReader = getBatchReader();
+			int compression = getCompression();
+			if ((readingMode == CHUNK_MODE) && (compression == FileCompression.NONE)) {
+				computeChunks(batchReader);
+			} else {
+				computeStream(batchReader, compression);
+			}
+		} else {
+			String error = "The file is not valid.\n";
+			error += "Given file: " + reader.getFile();
+			System.err.println(error);
+			hasFailed = true;
+		}
+	}
 
 
-				//Read the file line by line
+	/**
+	 * @return the reader if it processes batches, an adapter giving the lines one by one to the reader otherwise
+	 */
+	private BatchFileReader getBatchReader () {
+		if (reader instanceof BatchFileReader) {
+			return (BatchFileReader) reader;
+		}
+		return new LineByLineAdapter();
+	}
+
+
+	/**
+	 * @return the compression of the file (see {@link FileCompression}), no compression if it cannot be read
+	 */
+	private int getCompression () {
+		try {
+			return FileCompression.getCompression(reader.getFile());
+		} catch (IOException e) {
+			e.printStackTrace();
+			return FileCompression.NONE;
+		}
+	}
+
+
+	/**
+	 * Read the file block by block through a stream, gzip and BGZF files are decompressed on the fly.
+	 * A block is cut after its last line end, the incomplete line left is moved to the next block.
+	 * @param batchReader	the reader of the batches
+	 * @param compression	the compression of the file (see {@link FileCompression})
+	 */
+	private void computeStream(BatchFileReader batchReader, int compression) {
+		try{
+			// Open the input stream
+			InputStream in = FileCompression.openStream(reader.getFile(), compression, threadNumber);
+			try {
+				//Read the file block by block
 				currentLineNumber = 0;
-				String line;
-				while (((line = br.readLine()) != null) && isLineLimitValid(currentLineNumber))   {
-					currentLineNumber++;
-					reader.processLine(line);
+				byte[] block = new byte[DEFAULT_BLOCK_SIZE];
+				int length = 0;
+				boolean isReading = true;
+				boolean isEndOfFile = false;
+				while (isReading && !isEndOfFile) {
+					int read = in.read(block, length, block.length - length);
+					if (read == -1) {
+						isEndOfFile = true;
+					} else {
+						length += read;
+						if (length == block.length) {
+							int lineEnd = getLastLineEnd(block, length) + 1;
+							if (lineEnd == 0) {								// a single line is longer than the block
+								block = Arrays.copyOf(block, block.length * 2);
+							} else {
+								byte[] nextBlock = new byte[Math.max(DEFAULT_BLOCK_SIZE, (length - lineEnd) * 2)];
+								System.arraycopy(block, lineEnd, nextBlock, 0, length - lineEnd);
+								isReading = processBatch(batchReader, new LineBatch(block, 0, lineEnd));
+								block = nextBlock;
+								length -= lineEnd;
+							}
+						}
+					}
 				}
+				if (isReading && (length > 0)) {
+					processBatch(batchReader, new LineBatch(block, 0, length));
+				}
+			} finally {
+				// Close the input stream (and stop the threads inflating BGZF blocks), even if the reading has failed
+				in.close();
+			}
+		}catch (Exception e) {
+			e.printStackTrace();
+			hasFailed = true;
+		}
+	}
 
 
-				//Close the input streams
-				br.close();
-				isr.close();
-				in.close();
-				fstream.close();
-			}catch (Exception e) {
-				e.printStackTrace();
+	/**
+	 * Read the file chunk by chunk and split the chunks in lines on several threads.
+	 * Batches are given to the reader in the order of the file, from the current thread.
+	 * The buffer of a batch is reused for a next chunk once the reader has processed it.
+	 * @param batchReader the reader of the batches
+	 */
+	private void computeChunks(BatchFileReader batchReader) {
+		ExecutorService executor = Executors.newFixedThreadPool(threadNumber);
+		try {
+			// Open the channel and cut the file
+			RandomAccessFile file = new RandomAccessFile(reader.getFile(), "r");
+			try {
+				FileChannel channel = file.getChannel();
+				List<FileChunk> chunks = FileChunk.split(channel, chunkSize);
+
+				// Parse the chunks ahead and process their lines in order
+				LinkedList<Future<LineBatch>> pendingChunks = new LinkedList<>();
+				LinkedList<byte[]> freeBuffers = new LinkedList<>();
+				int nextChunk = 0;
+				boolean isReading = true;
+				currentLineNumber = 0;
+				while (isReading && ((nextChunk < chunks.size()) || !pendingChunks.isEmpty())) {
+					while ((nextChunk < chunks.size()) && (pendingChunks.size() < (threadNumber * 2))) {
+						pendingChunks.add(executor.submit(new ChunkParser(channel, chunks.get(nextChunk), freeBuffers.poll())));
+						nextChunk++;
+					}
+					LineBatch batch = pendingChunks.removeFirst().get();
+					isReading = processBatch(batchReader, batch);
+					freeBuffers.add(batch.getData());
+				}
+			} finally {
+				// Close the file and its channel, even if a chunk has failed
+				executor.shutdownNow();
+				file.close();
 			}
-		} else {
-			String error = "The file is not valid.\n";
-			error += "Given file: " + reader.getFile();
-			System.err.println(error);
+		} catch (Exception e) {
+			e.printStackTrace();
+			hasFailed = true;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+
+	/**
+	 * Numbers the lines of a batch, applies the line limit and gives the batch to the reader
+	 * @param batchReader	the reader of the batches
+	 * @param batch			the next batch of the file
+	 * @return true if the reading can go on, false if the line limit has been reached
+	 */
+	private boolean processBatch (BatchFileReader batchReader, LineBatch batch) {
+		if (lineLimit != -1) {
+			batch.truncate(lineLimit - currentLineNumber);
+		}
+		if (batch.getSize() > 0) {
+			batch.setFirstLineNumber(currentLineNumber + 1);
+			batchReader.processBatch(batch);
+			currentLineNumber = batch.getLastLineNumber();
 		}
+		return isLineLimitValid(currentLineNumber);
+	}
+
+
+	/**
+	 * A carriage return ending the block may be followed by a line feed in the next block: it is not a line end yet.
+	 * @param data		a block of the file
+	 * @param length	the number of bytes of the block
+	 * @return the index of the last line end (line feed or carriage return) of the block, -1 if there is none
+	 */
+	private int getLastLineEnd (byte[] data, int length) {
+		for (int i = length - 1; i >= 0; i--) {
+			if ((data[i] == '\n') || ((data[i] == '\r') && (i < (length - 1)))) {
+				return i;
+			}
+		}
+		return -1;
 	}
 
 
@@ -114,6 +275,38 @@ public class FileExtractor {
 	}
 
 
+	/**
+	 * @param readingMode the reading mode ({@link #STREAM_MODE} or {@link #CHUNK_MODE})
+	 */
+	public void setReadingMode (int readingMode) {
+		this.readingMode = readingMode;
+	}
+
+
+	/**
+	 * @param threadNumber the number of threads parsing chunks in chunk mode or inflating BGZF blocks
+	 */
+	public void setThreadNumber (int threadNumber) {
+		this.threadNumber = Math.max(1, threadNumber);
+	}
+
+
+	/**
+	 * @param chunkSize the size of the chunks in chunk mode (in bytes)
+	 */
+	public void setChunkSize (int chunkSize) {
+		this.chunkSize = Math.max(1, chunkSize);
+	}
+
+
+	/**
+	 * @return true if the last reading of the file has failed (file not valid, reading error or error of the reader), false otherwise
+	 */
+	public boolean hasFailed() {
+		return hasFailed;
+	}
+
+
 	/**
 	 * @return the currentLineNumber
 	 */
@@ -121,4 +314,41 @@ public class FileExtractor {
 		return currentLineNumber;
 	}
 
+
+	/**
+	 * Gives the lines of the batches one by one to a reader that does not process batches.
+	 * @author Nicolas Fourel
+	 * @version 0.1
+	 */
+	private class LineByLineAdapter implements BatchFileReader {
+
+		@Override
+		public File getFile() {
+			return reader.getFile();
+		}
+
+
+		@Override
+		public void setFile(File file) {
+			reader.setFile(file);
+		}
+
+
+		@Override
+		public void processLine(String line) {
+			reader.processLine(line);
+		}
+
+
+		@Override
+		public void processBatch(LineBatch batch) {
+			int size = batch.getSize();
+			for (int i = 0; i < size; i++) {
+				currentLineNumber = batch.getLineNumber(i);
+				reader.processLine(batch.getLine(i));
+			}
+		}
+
+	}
+
 }
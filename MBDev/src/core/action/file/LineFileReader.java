@@ -26,23 +26,32 @@ import java.io.File;
 
 import core.action.Action;
 import core.fileLine.Line;
+import core.fileLine.LineBatch;
 
 
 /**
+ * The {@link LineFileReader} receives the file by batches and initializes its formatted line with every line of a batch.
+ * Subclasses only process the current valid line, hot subclasses can also override {@link #processBatch(LineBatch)} to loop over the batch themselves.
  * @author Nicolas Fourel
  * @version 0.1
  * @param <K>
  */
-public abstract class LineFileReader<K> extends Action implements FileReader {
+public abstract class LineFileReader<K> extends Action implements BatchFileReader {
 
 	/** Generated serial version ID */
 	private static final long serialVersionUID = 1651258870122088018L;
 
 	protected FileExtractor extractor;	// The file extractor.
 	protected File file;				// The file.
-	protected String nativeLine;		// The current line as it is in the file.
+	private String nativeLine;			// The current line as it is in the file (created on demand for a line of a batch).
+	private LineBatch currentBatch;		// The batch containing the current line.
+	private int currentBatchIndex;		// The index of the current line in its batch.
+	protected int currentLineNumber;	// The current line number.
 	protected K line;					// The current formatted line.
 	protected boolean force;			// Force the processing of the current line.
+	private OutputSink outputSink;		// The sink replacing the output file (null to write the output file).
+	private OutputSink openedSink;		// The sink opened for the output of the reader (null if none has been opened).
+	private boolean hasOutputFailed;	// Says if the output of the reader could not be opened.
 
 
 	/**
@@ -54,6 +63,7 @@ public abstract class LineFileReader<K> extends Action implements FileReader {
 		this.line = line;
 		extractor = new FileExtractor(this);
 		force = false;
+		outputSink = null;
 	}
 
 
@@ -65,12 +75,62 @@ public abstract class LineFileReader<K> extends Action implements FileReader {
 			castLine.initialize(line);
 		}
 		if (force || ((castLine != null) && castLine.isValid())) {
+			currentLineNumber = extractor.getCurrentLineNumber();
+			currentBatch = null;
 			nativeLine = line;
 			processCurrentLine();
 		}
 	}
 
 
+	@Override
+	public void processBatch(LineBatch batch) {
+		Line castLine = null;
+		if (this.line != null) {
+			castLine = (Line) this.line;
+		}
+		currentBatch = batch;
+		int size = batch.getSize();
+		for (int i = 0; i < size; i++) {
+			if (castLine != null) {
+				castLine.initialize(batch, i);
+			}
+			if (force || ((castLine != null) && castLine.isValid())) {
+				currentLineNumber = batch.getLineNumber(i);
+				currentBatchIndex = i;
+				nativeLine = null;
+				processCurrentLine();
+			}
+		}
+		currentBatch = null;
+		currentLineNumber = batch.getLastLineNumber();
+	}
+
+
+	/**
+	 * Copies the current line to a run writer without rebuilding it (only possible for a line of a batch)
+	 * @param writer the run writer
+	 */
+	protected void keepCurrentLine (LineRunWriter writer) {
+		if (currentBatch != null) {
+			writer.keep(currentBatch, currentBatchIndex);
+		} else {
+			writer.keep((Line) line);
+		}
+	}
+
+
+	/**
+	 * @return the current line as it is in the file
+	 */
+	protected String getNativeLine () {
+		if ((nativeLine == null) && (currentBatch != null)) {
+			nativeLine = currentBatch.getLine(currentBatchIndex);
+		}
+		return nativeLine;
+	}
+
+
 	/**
 	 * Process the current line
 	 * @param currentLine the current valid line
@@ -101,6 +161,50 @@ public abstract class LineFileReader<K> extends Action implements FileReader {
 	 * @return the currentLineNumber
 	 */
 	public int getCurrentLineNumber() {
-		return extractor.getCurrentLineNumber();
+		return currentLineNumber;
+	}
+
+
+	/**
+	 * Opens the output of the reader
+	 * @param outputFile the output file
+	 * @return the sink given with {@link #setOutputSink(OutputSink)}, a sink on the output file otherwise (null if the file cannot be opened)
+	 */
+	protected OutputSink openOutputSink (File outputFile) {
+		if (outputSink != null) {
+			openedSink = outputSink;
+		} else {
+			openedSink = OutputSink.open(outputFile);
+			hasOutputFailed = openedSink == null;
+		}
+		return openedSink;
+	}
+
+
+	/**
+	 * @return true if the file has been read and the output of the reader (if any) has been written without error, false otherwise
+	 */
+	public boolean isSuccessful () {
+		if (extractor.hasFailed() || hasOutputFailed) {
+			return false;
+		}
+		return (openedSink == null) || !openedSink.hasFailed();
+	}
+
+
+	/**
+	 * The sink must be set before running the reader, it is closed at the end of the reader as the output file would have been.
+	 * @param outputSink the sink replacing the output file (null to write the output file)
+	 */
+	public void setOutputSink (OutputSink outputSink) {
+		this.outputSink = outputSink;
+	}
+
+
+	/**
+	 * @param readingMode the reading mode of the file (see {@link FileExtractor})
+	 */
+	public void setReadingMode (int readingMode) {
+		extractor.setReadingMode(readingMode);
 	}
 }
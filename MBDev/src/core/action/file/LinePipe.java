@@ -0,0 +1,148 @@
+/*******************************************************************************
+ * Montpellier Biology Developpment
+ * This project aims to create a tool to process and analyse data of a project in the field of Biology.
+ * Copyright (C) 2012, Nicolas Fourel
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Authors:
+ * 	Nicolas Fourel <nicolas.fourel@live.fr>
+ * 	Romain Desprat <rdesprat@gmail.com>
+ ******************************************************************************/
+package core.action.file;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import core.fileLine.LineBatch;
+
+
+/**
+ * The {@link LinePipe} is an {@link OutputSink} giving the written lines to another reader instead of writing them to a file.
+ * When the buffer is full, its complete lines are split in a {@link LineBatch} given to the reader, the last incomplete line stays in the buffer.
+ * The lines can also be written to a tap file, as the file the reader would have read.
+ * The reader is called by the thread writing in the pipe.
+ * @author Nicolas Fourel
+ * @version 0.1
+ */
+public class LinePipe extends OutputSink {
+
+	private final BatchFileReader reader;	// The reader receiving the lines.
+	private final OutputSink tap;			// The sink of the tap file (null if there is no tap file).
+	private int lineNumber;					// The number of lines given to the reader.
+	private boolean isPipeClosed;			// Says if the pipe has been closed.
+
+
+	/**
+	 * Constructor of {@link LinePipe}
+	 * @param reader	the reader receiving the lines
+	 * @param tapFile	the file the lines are also written to (null for none)
+	 * @throws IOException if the tap file cannot be opened
+	 */
+	public LinePipe (BatchFileReader reader, File tapFile) throws IOException {
+		super(DEFAULT_BUFFER_SIZE);
+		this.reader = reader;
+		if (tapFile != null) {
+			tap = new OutputSink(tapFile);
+		} else {
+			tap = null;
+		}
+		lineNumber = 0;
+		isPipeClosed = false;
+	}
+
+
+	/**
+	 * Opens a pipe to a reader, the error is printed if the tap file cannot be opened
+	 * @param reader	the reader receiving the lines
+	 * @param tapFile	the file the lines are also written to (null for none)
+	 * @return the pipe, null if the tap file cannot be opened
+	 */
+	public static LinePipe open (BatchFileReader reader, File tapFile) {
+		try {
+			return new LinePipe(reader, tapFile);
+		} catch (IOException e) {
+			e.printStackTrace();
+			return null;
+		}
+	}
+
+
+	/**
+	 * Gives the complete lines of the buffer to the reader, the buffer is doubled if it only contains an incomplete line
+	 */
+	@Override
+	void swap () {
+		if (isPipeClosed) {
+			throw new IllegalStateException("The line pipe is closed.");
+		}
+		int stop = current.length;
+		while ((stop > 0) && (current.data[stop - 1] != '\n')) {
+			stop--;
+		}
+		if (stop == 0) {
+			Block larger = new Block(Arrays.copyOf(current.data, current.data.length * 2));
+			larger.length = current.length;
+			current = larger;
+		} else {
+			give(stop);
+		}
+	}
+
+
+	/**
+	 * Gives the beginning of the buffer to the reader and moves the rest to the start of the buffer
+	 * @param stop the index right after the last byte given
+	 */
+	private void give (int stop) {
+		if (tap != null) {
+			tap.write(current.data, 0, stop);
+		}
+		LineBatch batch = new LineBatch(current.data, 0, stop);
+		batch.setFirstLineNumber(lineNumber + 1);
+		lineNumber += batch.getSize();
+		reader.processBatch(batch);
+		System.arraycopy(current.data, stop, current.data, 0, current.length - stop);
+		current.length -= stop;
+	}
+
+
+	/**
+	 * Gives the remaining lines to the reader and closes the tap file.
+	 * The reader is not ended: it still has to be closed by its owner.
+	 * @throws IOException if some data could not be written to the tap file
+	 */
+	@Override
+	public void close () throws IOException {
+		if (!isPipeClosed) {
+			if (current.length > 0) {
+				give(current.length);
+			}
+			isPipeClosed = true;
+		}
+		if (tap != null) {
+			tap.close();
+		}
+	}
+
+
+	/**
+	 * @return the number of lines given to the reader
+	 */
+	public int getLineNumber () {
+		return lineNumber;
+	}
+
+}
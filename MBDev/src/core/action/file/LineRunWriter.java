@@ -0,0 +1,92 @@
+/*******************************************************************************
+ * Montpellier Biology Developpment
+ * This project aims to create a tool to process and analyse data of a project in the field of Biology.
+ * Copyright (C) 2012, Nicolas Fourel
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Authors:
+ * 	Nicolas Fourel <nicolas.fourel@live.fr>
+ * 	Romain Desprat <rdesprat@gmail.com>
+ ******************************************************************************/
+package core.action.file;
+
+import core.fileLine.Line;
+import core.fileLine.LineBatch;
+
+
+/**
+ * The {@link LineRunWriter} copies unmodified lines of a {@link LineBatch} to an {@link OutputSink}.
+ * Consecutive kept lines separated by a single line feed form a run, a run is copied at once when it is broken or flushed.
+ * Lines are written with a line feed, as if they were rebuilt from their columns.
+ * @author Nicolas Fourel
+ * @version 0.1
+ */
+public class LineRunWriter {
+
+	private final OutputSink out;	// The output sink.
+	private LineBatch batch;		// The batch of the current run.
+	private int runStart;			// The index of the first byte of the current run.
+	private int runStop;			// The index right after the last byte of the current run.
+
+
+	/**
+	 * Constructor of {@link LineRunWriter}
+	 * @param out the output sink
+	 */
+	public LineRunWriter (OutputSink out) {
+		this.out = out;
+		this.batch = null;
+	}
+
+
+	/**
+	 * Keeps a line, it is added to the current run if it directly follows it after a single line feed
+	 * @param batch	a batch of lines
+	 * @param index	index of the kept line in the batch
+	 */
+	public void keep (LineBatch batch, int index) {
+		int lineStart = batch.getLineStart(index);
+		// a line ending with a carriage return breaks the run: it would be copied with its carriage return
+		if ((batch != this.batch) || (lineStart != (runStop + 1)) || (batch.getData()[runStop] != '\n')) {
+			flush();
+			this.batch = batch;
+			runStart = lineStart;
+		}
+		runStop = batch.getLineStop(index);
+	}
+
+
+	/**
+	 * Writes a line that does not come from a batch, the line is rebuilt from its columns
+	 * @param line a valid line
+	 */
+	public void keep (Line line) {
+		flush();
+		out.writeLine(line.getLine());
+	}
+
+
+	/**
+	 * Writes the current run
+	 */
+	public void flush () {
+		if (batch != null) {
+			out.write(batch.getData(), runStart, runStop - runStart);
+			out.newLine();
+			batch = null;
+		}
+	}
+
+}
@@ -0,0 +1,333 @@
+/*******************************************************************************
+ * Montpellier Biology Developpment
+ * This project aims to create a tool to process and analyse data of a project in the field of Biology.
+ * Copyright (C) 2012, Nicolas Fourel
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Authors:
+ * 	Nicolas Fourel <nicolas.fourel@live.fr>
+ * 	Romain Desprat <rdesprat@gmail.com>
+ ******************************************************************************/
+package core.action.file;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import core.fileLine.ByteSequence;
+import core.fileLine.RecordFormatter;
+
+
+/**
+ * The {@link OutputSink} writes text to a file through two byte buffers.
+ * The calling thread encodes the text in one buffer while a background thread writes the other one to the disk.
+ * Writing errors are reported when the sink is closed.
+ * Subclasses of the package can send the text somewhere else than to a file (see {@link LinePipe}).
+ * @author Nicolas Fourel
+ * @version 0.1
+ */
+public class OutputSink {
+
+	public static final int DEFAULT_BUFFER_SIZE = 4 * 1024 * 1024;	// Default size of the buffers (in bytes).
+
+	private static final Block END_OF_OUTPUT = new Block(new byte[0]);	// The block telling the writer thread to stop.
+
+	private final OutputStream out;					// The output stream of the file.
+	private final BlockingQueue<Block> fullBlocks;	// The blocks waiting to be written.
+	private final BlockingQueue<Block> freeBlocks;	// The blocks already written.
+	private final Thread writer;					// The background writer thread.
+	Block current;									// The block currently filled.
+	private volatile IOException error;				// The first error of the writer thread.
+	private boolean isClosed;						// Says if the sink has been closed.
+
+
+	/**
+	 * Constructor of {@link OutputSink}
+	 * @param file the output file
+	 * @throws IOException
+	 */
+	public OutputSink (File file) throws IOException {
+		this(file, DEFAULT_BUFFER_SIZE);
+	}
+
+
+	/**
+	 * Constructor of {@link OutputSink}
+	 * @param file			the output file
+	 * @param bufferSize	the size of the buffers (in bytes)
+	 * @throws IOException
+	 */
+	public OutputSink (File file, int bufferSize) throws IOException {
+		bufferSize = Math.max(16, bufferSize);
+		out = new FileOutputStream(file);
+		fullBlocks = new ArrayBlockingQueue<>(1);
+		freeBlocks = new ArrayBlockingQueue<>(1);
+		freeBlocks.add(new Block(new byte[bufferSize]));
+		current = new Block(new byte[bufferSize]);
+		isClosed = false;
+		writer = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				writeBlocks();
+			}
+		}, "Output sink: " + file.getName());
+		writer.setDaemon(true);
+		writer.start();
+	}
+
+
+	/**
+	 * Constructor of {@link OutputSink} for subclasses that do not write to a file: they handle the full buffer in {@link #swap()}
+	 * @param bufferSize the size of the buffer (in bytes)
+	 */
+	OutputSink (int bufferSize) {
+		out = null;
+		fullBlocks = null;
+		freeBlocks = null;
+		writer = null;
+		current = new Block(new byte[Math.max(16, bufferSize)]);
+		isClosed = false;
+	}
+
+
+	/**
+	 * Opens a sink on a file, the error is printed if the file cannot be opened
+	 * @param file the output file
+	 * @return the sink, null if the file cannot be opened
+	 */
+	public static OutputSink open (File file) {
+		try {
+			return new OutputSink(file);
+		} catch (IOException e) {
+			e.printStackTrace();
+			return null;
+		}
+	}
+
+
+	/**
+	 * Closes a sink, the error is printed if the data could not be written
+	 * @param sink a sink (can be null)
+	 */
+	public static void close (OutputSink sink) {
+		if (sink != null) {
+			try {
+				sink.close();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+
+	/**
+	 * Writes a byte
+	 * @param b the byte to write
+	 */
+	public void write (byte b) {
+		if (current.length == current.data.length) {
+			swap();
+		}
+		current.data[current.length++] = b;
+	}
+
+
+	/**
+	 * Writes a line feed
+	 */
+	public void newLine () {
+		write((byte) '\n');
+	}
+
+
+	/**
+	 * Writes a tabulation
+	 */
+	public void tab () {
+		write((byte) '\t');
+	}
+
+
+	/**
+	 * Writes a region of a byte array
+	 * @param data		an array
+	 * @param start		index of the first byte to write
+	 * @param length	number of bytes to write
+	 */
+	public void write (byte[] data, int start, int length) {
+		while (length > 0) {
+			if (current.length == current.data.length) {
+				swap();
+			}
+			int copied = Math.min(length, current.data.length - current.length);
+			System.arraycopy(data, start, current.data, current.length, copied);
+			current.length += copied;
+			start += copied;
+			length -= copied;
+		}
+	}
+
+
+	/**
+	 * Writes a sequence of characters, ASCII characters are copied directly and the others encoded in UTF-8
+	 * @param sequence the sequence to write
+	 */
+	public void write (CharSequence sequence) {
+		if (sequence instanceof ByteSequence) {
+			ByteSequence bytes = (ByteSequence) sequence;
+			write(bytes.getData(), bytes.getStart(), bytes.length());
+			return;
+		}
+		int length = sequence.length();
+		for (int i = 0; i < length; i++) {
+			char c = sequence.charAt(i);
+			if (c < 128) {
+				write((byte) c);
+			} else {
+				byte[] encoded = sequence.subSequence(i, length).toString().getBytes(ByteSequence.CHARSET);
+				write(encoded, 0, encoded.length);
+				return;
+			}
+		}
+	}
+
+
+	/**
+	 * Writes a sequence of characters followed by a line feed
+	 * @param sequence the sequence to write
+	 */
+	public void writeLine (CharSequence sequence) {
+		write(sequence);
+		newLine();
+	}
+
+
+	/**
+	 * Writes the record of a formatter followed by a line feed
+	 * @param formatter the formatter
+	 */
+	public void writeLine (RecordFormatter formatter) {
+		write(formatter.getData(), 0, formatter.length());
+		newLine();
+	}
+
+
+	/**
+	 * Gives the current buffer to the writer thread and takes the other one
+	 */
+	void swap () {
+		if (isClosed) {
+			throw new IllegalStateException("The output sink is closed.");
+		}
+		try {
+			fullBlocks.put(current);
+			current = freeBlocks.take();
+			current.length = 0;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			error = new IOException(e);
+			current = new Block(new byte[current.data.length]);
+		}
+	}
+
+
+	/**
+	 * Writes the remaining data, stops the writer thread and closes the file
+	 * @throws IOException if some data could not be written
+	 */
+	public void close () throws IOException {
+		if (!isClosed) {
+			if (current.length > 0) {
+				swap();
+			}
+			isClosed = true;
+			try {
+				fullBlocks.put(END_OF_OUTPUT);
+				writer.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				error = new IOException(e);
+			}
+			try {
+				out.close();
+			} catch (IOException e) {
+				if (error == null) {
+					error = e;
+				}
+			}
+		}
+		if (error != null) {
+			throw error;
+		}
+	}
+
+
+	/**
+	 * @return true if some data could not be written, false otherwise
+	 */
+	public boolean hasFailed () {
+		return error != null;
+	}
+
+
+	/**
+	 * Writes the blocks given by the calling thread until the end of the output (run by the writer thread)
+	 */
+	private void writeBlocks () {
+		try {
+			Block block = fullBlocks.take();
+			while (block != END_OF_OUTPUT) {
+				if (error == null) {
+					try {
+						out.write(block.data, 0, block.length);
+					} catch (IOException e) {
+						error = e;
+					}
+				}
+				freeBlocks.put(block);
+				block = fullBlocks.take();
+			}
+		} catch (InterruptedException e) {
+			error = new IOException(e);
+		}
+	}
+
+
+	/**
+	 * A buffer and the number of bytes it contains.
+	 * @author Nicolas Fourel
+	 * @version 0.1
+	 */
+	static class Block {
+
+		final byte[] data;	// The buffer.
+		int length;			// The number of bytes of the buffer.
+
+
+		/**
+		 * Constructor of {@link Block}
+		 * @param data the buffer
+		 */
+		Block (byte[] data) {
+			this.data = data;
+			this.length = 0;
+		}
+
+	}
+
+}
@@ -82,4 +82,12 @@ public class SimpleFileReader extends Action implements FileReader {
 	@Override
 	protected void doAtTheEnd() {}
 
+
+	/**
+	 * @param readingMode the reading mode of the file (see {@link FileExtractor})
+	 */
+	public void setReadingMode (int readingMode) {
+		extractor.setReadingMode(readingMode);
+	}
+
 }
@@ -22,13 +22,13 @@
  ******************************************************************************/
 package core.action.hic;
 
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
-import java.io.IOException;
 
 import core.action.file.LineFileReader;
+import core.action.file.LineRunWriter;
+import core.action.file.OutputSink;
 import core.fileLine.HicLine;
+import core.fileLine.LineBatch;
 
 /**
  * @author Nicolas Fourel
@@ -47,8 +47,8 @@ public class ExtractChromosomeRegion extends LineFileReader<HicLine> {
 	private final int extractOption;	// The extract option.
 
 	private boolean isReadyToWrite;		// Says if the output file is ready.
-	private FileWriter fw;				// The file writer.
-	private BufferedWriter out;			// The buffered writer.
+	private OutputSink out;				// The output sink.
+	private LineRunWriter runs;			// The writer of the kept lines.
 
 
 	/**
@@ -68,62 +68,58 @@ public class ExtractChromosomeRegion extends LineFileReader<HicLine> {
 
 	@Override
 	protected void processCurrentLine() {
-		if (isReadyToWrite) {
-			boolean isValid = false;
+		if (isReadyToWrite && isExtracted(line.isIntraChromosome())) {
+			keepCurrentLine(runs);
+		}
+	}
 
-			if (extractOption == INTER_CHROMOSOME) {
-				if (!line.getFirstChromosome().equals(line.getSecondChromosome())) {
-					isValid = true;
-				}
-			} else if (extractOption == INTRA_CHROMOSOME) {
-				if (line.getFirstChromosome().equals(line.getSecondChromosome())) {
-					isValid = true;
-				}
-			}
 
-			if (isValid) {
-				String newLine = line.getLine();
-				if (newLine != null) {
-					try {
-						out.write(newLine + "\n");
-					} catch (IOException e) {
-						e.printStackTrace();
-					}
+	@Override
+	public void processBatch(LineBatch batch) {
+		if (isReadyToWrite) {
+			int columnNumber = line.getColumnNumber();
+			int size = batch.getSize();
+			for (int i = 0; i < size; i++) {
+				if ((batch.getColumnNumber(i) == columnNumber) && isExtracted(batch.columnEquals(i, 1, 4))) {
+					runs.keep(batch, i);
 				}
 			}
+			runs.flush();
 		}
+		currentLineNumber = batch.getLastLineNumber();
+	}
+
+
+	/**
+	 * @param isIntraChromosome true if both positions of the line are on the same chromosome
+	 * @return true if the line must be extracted according to the extract option
+	 */
+	private boolean isExtracted (boolean isIntraChromosome) {
+		if (extractOption == INTER_CHROMOSOME) {
+			return !isIntraChromosome;
+		} else if (extractOption == INTRA_CHROMOSOME) {
+			return isIntraChromosome;
+		}
+		return false;
 	}
 
 
 	@Override
 	protected void doFirst() {
-		try {
-			fw = new FileWriter(outputFile);
-			out = new BufferedWriter(fw);
-			isReadyToWrite = true;
-		} catch (IOException e) {
-			e.printStackTrace();
+		out = openOutputSink(outputFile);
+		isReadyToWrite = out != null;
+		if (isReadyToWrite) {
+			runs = new LineRunWriter(out);
 		}
 	}
 
 
 	@Override
 	protected void doAtTheEnd() {
-		if (out != null) {
-			try {
-				out.close();
-			} catch (Exception e) {
-				e.printStackTrace();
-			}
-		}
-
-		if (fw != null) {
-			try {
-				fw.close();
-			} catch (Exception e) {
-				e.printStackTrace();
-			}
+		if (runs != null) {
+			runs.flush();
 		}
+		OutputSink.close(out);
 	}
 
 }
@@ -22,16 +22,15 @@
  ******************************************************************************/
 package core.action.hic;
 
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
-import java.io.IOException;
-import java.util.List;
-import java.util.Map;
 
 import core.action.file.LineFileReader;
+import core.action.file.OutputSink;
 import core.fileLine.HicLine;
-import core.fileLine.TimingLine;
+import core.fileLine.LineTokenizer;
+import core.fileLine.RecordFormatter;
+import core.list.IntCursor;
+import core.list.TimingIndex;
 
 
 /**
@@ -43,26 +42,39 @@ public class MergeHiCWithTiming extends LineFileReader<HicLine> {
 	/** Generated default serial version ID */
 	private static final long serialVersionUID = 4495558610088027673L;
 
+	public static final int SEARCH_MODE = 0;	// Search the closest timing position of every HiC position in the timing index.
+	public static final int CURSOR_MODE = 1;	// Walk along the timing positions with a cursor per chromosome and HiC end while the HiC lines are sorted by first chromosome and position.
+
 	private final File outputFile;						// The output file.
-	private final Map<String, List<TimingLine>> map;	// The map between chromosome (key) and the list of timing line (value).
+	private final TimingIndex index;					// The timing values of the chromosomes.
+	private final String[] lastChromosomes;				// The last chromosome of the first and second HiC ends.
+	private final int[] lastChromosomeIndexes;			// The index in the timing values of the last chromosome of the first and second HiC ends.
+	private final RecordFormatter formatter;			// The formatter of the output lines.
+	private int mode;									// The way the timing positions are searched.
+	private IntCursor[] firstCursors;					// The cursors of the first HiC positions, by chromosome index (CURSOR_MODE only).
+	private IntCursor[] secondCursors;					// The cursors of the second HiC positions, by chromosome index (CURSOR_MODE only).
+	private int lastFirstChromosomeIndex;				// The chromosome index of the last first HiC position (CURSOR_MODE only).
 
 	private boolean isReadyToWrite;						// Says if the output file is ready.
-	private FileWriter fw;								// The file writer.
-	private BufferedWriter out;							// The buffered writer.
+	private OutputSink out;								// The output sink.
 
 
 	/**
 	 * Constructor of {@link MergeHiCWithTiming}
 	 * @param inputFile		the input file
 	 * @param outputFile	the output file
-	 * @param map			the map between chromosome (key) and the list of timing line (value)
+	 * @param index		the timing values of the chromosomes (built)
 	 */
-	public MergeHiCWithTiming(File inputFile, File outputFile, Map<String, List<TimingLine>> map) {
+	public MergeHiCWithTiming(File inputFile, File outputFile, TimingIndex index) {
 		super(inputFile, new HicLine(null));
 		this.outputFile = outputFile;
 		isReadyToWrite = false;
 		actionName = "Merge HiC data with Timing data.";
-		this.map = map;
+		this.index = index;
+		lastChromosomes = new String[2];
+		lastChromosomeIndexes = new int[2];
+		formatter = new RecordFormatter();
+		mode = SEARCH_MODE;
 	}
 
 
@@ -71,20 +83,25 @@ public class MergeHiCWithTiming extends LineFileReader<HicLine> {
 		if (isReadyToWrite) {
 			boolean isValid = false;
 
-			Double firstCoeff = getValue(map.get(line.getFirstChromosome()), line.getFirstPosition());
-			Double secondCoeff = getValue(map.get(line.getSecondChromosome()), line.getSecondPosition());
+			double firstCoeff = LineTokenizer.INVALID_DOUBLE;
+			double secondCoeff = LineTokenizer.INVALID_DOUBLE;
+
+			int firstPosition = line.getFirstPositionInt();
+			if (line.isParseValid()) {
+				firstCoeff = getValue(getChromosomeIndex(1, 0), firstPosition, true);
+			}
+			int secondPosition = line.getSecondPositionInt();
+			if (line.isParseValid()) {
+				secondCoeff = getValue(getChromosomeIndex(4, 1), secondPosition, false);
+			}
 
-			if ((firstCoeff != null) && (secondCoeff != null)) {
+			if (!Double.isNaN(firstCoeff) && !Double.isNaN(secondCoeff)) {
 				isValid = true;
 			}
 
 			if (isValid) {
-				String newLine = getLine(line, firstCoeff, secondCoeff);
-				try {
-					out.write(newLine + "\n");
-				} catch (IOException e) {
-					e.printStackTrace();
-				}
+				formatLine(line, firstPosition, firstCoeff, secondPosition, secondCoeff);
+				out.writeLine(formatter);
 			}
 		}
 	}
@@ -92,123 +109,127 @@ public class MergeHiCWithTiming extends LineFileReader<HicLine> {
 
 	@Override
 	protected void doFirst() {
-		try {
-			fw = new FileWriter(outputFile);
-			out = new BufferedWriter(fw);
-			isReadyToWrite = true;
-		} catch (IOException e) {
-			e.printStackTrace();
+		out = openOutputSink(outputFile);
+		isReadyToWrite = out != null;
+		if (mode == CURSOR_MODE) {
+			firstCursors = new IntCursor[index.getChromosomeNumber()];
+			secondCursors = new IntCursor[index.getChromosomeNumber()];
+			lastFirstChromosomeIndex = -1;
 		}
 	}
 
 
 	@Override
 	protected void doAtTheEnd() {
-		if (out != null) {
-			try {
-				out.close();
-			} catch (Exception e) {
-				e.printStackTrace();
-			}
-		}
-
-		if (fw != null) {
-			try {
-				fw.close();
-			} catch (Exception e) {
-				e.printStackTrace();
-			}
-		}
+		OutputSink.close(out);
 	}
 
 
 	/**
-	 * Creates the line
-	 * @param line			the HiC line
-	 * @param firstCoeff	the first timing value
-	 * @param secondCoeff	the second timing value
-	 * @return the line to insert
+	 * Creates the line in the formatter
+	 * @param line				the HiC line
+	 * @param firstPosition		the first position
+	 * @param firstCoeff		the first timing value
+	 * @param secondPosition	the second position
+	 * @param secondCoeff		the second timing value
 	 */
-	private String getLine (HicLine line, Double firstCoeff, Double secondCoeff) {
-		String info = "";
-
-		info += line.getName() + "\t";
-		info += line.getFirstChromosome() + "\t";
-		info += line.getFirstPosition() + "\t";
-		info += line.getFirstStrand() + "\t";
-		info += firstCoeff + "\t";
-		info += line.getSecondChromosome() + "\t";
-		info += line.getSecondPosition() + "\t";
-		info += line.getSecondStrand() + "\t";
-		info += secondCoeff;
-
-		return info;
+	private void formatLine (HicLine line, int firstPosition, double firstCoeff, int secondPosition, double secondCoeff) {
+		formatter.clear();
+		formatter.append(line.getColumn(0)).tab();
+		formatter.append(line.getColumn(1)).tab();
+		formatter.append(firstPosition).tab();
+		formatter.append(line.getColumn(3)).tab();
+		formatter.append(firstCoeff).tab();
+		formatter.append(line.getColumn(4)).tab();
+		formatter.append(secondPosition).tab();
+		formatter.append(line.getColumn(6)).tab();
+		formatter.append(secondCoeff);
 	}
 
 
 	/**
 	 * Get the closest timing value for a given position
-	 * @param list		a list of timing lines
-	 * @param position	a given position
-	 * @return			the closest value associated to the position
+	 * @param chromosomeIndex	the index of the chromosome in the timing values, -1 if it has no timing value
+	 * @param position			a given position
+	 * @param isFirst			true if the position is the first one of the HiC line, false if it is the second one
+	 * @return					the closest value associated to the position ({@link LineTokenizer#INVALID_DOUBLE} if not valid)
 	 */
-	private Double getValue (List<TimingLine> list, int position) {
-		if ((list != null) && (list.size() > 0)) {
-			int index = findClosestIndex(list, position);
-			return list.get(index).getCoeff();
+	private double getValue (int chromosomeIndex, int position, boolean isFirst) {
+		if ((chromosomeIndex != -1) && (index.size(chromosomeIndex) > 0)) {
+			if (mode == CURSOR_MODE) {
+				IntCursor cursor = getCursor(chromosomeIndex, isFirst);
+				if (cursor != null) {
+					int valueIndex = cursor.getNearestIndex(position);
+					if (isFirst && !cursor.isMonotone()) {
+						setUnsorted();
+					}
+					return index.getValue(chromosomeIndex, valueIndex);
+				}
+			}
+			return index.getClosestValue(chromosomeIndex, position);
 		}
 		return 0.0;
 	}
 
 
 	/**
-	 * Get the closest index for a given position
-	 * @param list		a list of timing lines
-	 * @param position	a given position
-	 * @return			the closes index in the list
+	 * The first HiC positions must come by chromosome and by increasing position: when a chromosome comes back, the input is not sorted.
+	 * The second HiC positions are close to each other but not sorted: their cursors gallop from the previous position, forward or backward.
+	 * @param chromosomeIndex	the index of a chromosome
+	 * @param isFirst			true for the cursor of the first HiC position, false for the one of the second HiC position
+	 * @return					the cursor of the chromosome, null if the input is not sorted
 	 */
-	private int findClosestIndex (List<TimingLine> list, int position) {
-		int index = findIndex(list, position, 0, list.size() - 1);
-		int currentPosition = list.get(index).getPosition();
-		if (position < currentPosition) {
-			if (index > 0) {
-				int previousIndex = index - 1;
-				int previousPosition = list.get(previousIndex).getPosition();
-				int diff = (currentPosition - position) - (position - previousPosition);
-
-				if (diff > 0) {
-					index = previousIndex;
+	private IntCursor getCursor (int chromosomeIndex, boolean isFirst) {
+		IntCursor[] cursors = secondCursors;
+		if (isFirst) {
+			cursors = firstCursors;
+			if (chromosomeIndex != lastFirstChromosomeIndex) {
+				if (cursors[chromosomeIndex] != null) {
+					setUnsorted();
+					return null;
 				}
+				lastFirstChromosomeIndex = chromosomeIndex;
 			}
 		}
+		if (cursors[chromosomeIndex] == null) {
+			cursors[chromosomeIndex] = index.newCursor(chromosomeIndex);
+		}
+		return cursors[chromosomeIndex];
+	}
+
 
-		return index;
+	/**
+	 * Goes back to the {@link #SEARCH_MODE} for the rest of the file
+	 */
+	private void setUnsorted () {
+		mode = SEARCH_MODE;
+		firstCursors = null;
+		secondCursors = null;
 	}
 
 
 	/**
-	 * Find the index for a given position, the one right after if not found
-	 * @param list			a list of timing lines
-	 * @param position		a given position
-	 * @param indexStart	a start index
-	 * @param indexStop		a stop index
-	 * @return				the index for a given position, the one right after if not found
+	 * The lines of a HiC file are mostly grouped by chromosome: the last chromosome of every HiC end is kept and compared with the bytes of the line,
+	 * its name is only created and hashed again when it changes.
+	 * @param column	the column of the chromosome in the line
+	 * @param end		0 for the first HiC end, 1 for the second one
+	 * @return			the index of the chromosome in the timing values, -1 if it has no timing value
 	 */
-	private int findIndex (List<TimingLine> list, int position, int indexStart, int indexStop) {
-		if (indexStart == indexStop) {
-			return indexStart;
-		} else {
-			int middle = (indexStop - indexStart) / 2;
-			int currentPosition = list.get(indexStart + middle).getPosition();
-
-			if (currentPosition == position) {
-				return indexStart + middle;
-			} else if (position < currentPosition) {
-				return findIndex(list, position, indexStart, indexStart + middle);
-			} else {
-				return findIndex(list, position, indexStart + middle + 1, indexStop);
-			}
+	private int getChromosomeIndex (int column, int end) {
+		if (!line.columnEquals(column, lastChromosomes[end])) {
+			lastChromosomes[end] = line.getColumn(column).toString();
+			lastChromosomeIndexes[end] = index.getChromosomeIndex(lastChromosomes[end]);
 		}
+		return lastChromosomeIndexes[end];
+	}
+
+
+	/**
+	 * The mode must be set before running the action.
+	 * @param mode the way the timing positions are searched ({@link #SEARCH_MODE} or {@link #CURSOR_MODE})
+	 */
+	public void setMode (int mode) {
+		this.mode = mode;
 	}
 
 }
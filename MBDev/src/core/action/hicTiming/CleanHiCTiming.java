@@ -22,13 +22,13 @@
  ******************************************************************************/
 package core.action.hicTiming;
 
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
-import java.io.IOException;
 
 import core.action.file.LineFileReader;
+import core.action.file.LineRunWriter;
+import core.action.file.OutputSink;
 import core.fileLine.HicTimingLine;
+import core.fileLine.LineBatch;
 
 /**
  * @author Nicolas Fourel
@@ -42,8 +42,8 @@ public class CleanHiCTiming extends LineFileReader<HicTimingLine> {
 	private final File outputFile;		// The output file.
 
 	private boolean isReadyToWrite;		// Says if the output file is ready.
-	private FileWriter fw;				// The file writer.
-	private BufferedWriter out;			// The buffered writer.
+	private OutputSink out;				// The output sink.
+	private LineRunWriter runs;		// The writer of the kept lines.
 
 
 	/**
@@ -62,44 +62,43 @@ public class CleanHiCTiming extends LineFileReader<HicTimingLine> {
 	@Override
 	protected void processCurrentLine() {
 		if (isReadyToWrite) {
-			try {
-				out.write(line.getLine() + "\n");
-			} catch (IOException e) {
-				e.printStackTrace();
+			keepCurrentLine(runs);
+		}
+	}
+
+
+	@Override
+	public void processBatch(LineBatch batch) {
+		if (isReadyToWrite) {
+			int columnNumber = line.getColumnNumber();
+			int size = batch.getSize();
+			for (int i = 0; i < size; i++) {
+				if (batch.getColumnNumber(i) == columnNumber) {
+					runs.keep(batch, i);
+				}
 			}
+			runs.flush();
 		}
+		currentLineNumber = batch.getLastLineNumber();
 	}
 
 
 	@Override
 	protected void doFirst() {
-		try {
-			fw = new FileWriter(outputFile);
-			out = new BufferedWriter(fw);
-			isReadyToWrite = true;
-		} catch (IOException e) {
-			e.printStackTrace();
+		out = openOutputSink(outputFile);
+		isReadyToWrite = out != null;
+		if (isReadyToWrite) {
+			runs = new LineRunWriter(out);
 		}
 	}
 
 
 	@Override
 	protected void doAtTheEnd() {
-		if (out != null) {
-			try {
-				out.close();
-			} catch (Exception e) {
-				e.printStackTrace();
-			}
-		}
-
-		if (fw != null) {
-			try {
-				fw.close();
-			} catch (Exception e) {
-				e.printStackTrace();
-			}
+		if (runs != null) {
+			runs.flush();
 		}
+		OutputSink.close(out);
 	}
 
 }
@@ -23,13 +23,20 @@
 package core.action.hicTiming;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import core.action.file.LineFileReader;
 import core.chromosome.ProjectChromosome;
 import core.fileLine.HicTimingLine;
+import core.fileLine.LineTokenizer;
 import core.list.ChromosomeArrayListOfLists;
 import core.list.ChromosomeListOfLists;
+import core.list.ByteArrayAsChromosomeList;
 import core.list.IntArrayAsIntegerList;
+import core.list.file.HicTimingLineFile;
+import core.util.ArraySorter;
 
 
 /**
@@ -43,6 +50,9 @@ public class ExtractWindowsFromHicTiming extends LineFileReader<HicTimingLine> {
 
 	private final ProjectChromosome projectChromosome;		// The instance of the chromosome project.
 	private final ChromosomeListOfLists<Integer> fullList;	// The list of windows.
+	private final IntArrayAsIntegerList[] lists;			// The lists of windows of the chromosomes, by chromosome index.
+	private final HicTimingLineFile store;					// The HiC/timing lines already extracted (null to read the input file).
+	private final int[] chromosomeIndexes;					// The chromosome indexes, by chromosome code + 128 (-1 if not known yet).
 
 
 	/**
@@ -50,22 +60,89 @@ public class ExtractWindowsFromHicTiming extends LineFileReader<HicTimingLine> {
 	 * @param inputFile the input file
 	 */
 	public ExtractWindowsFromHicTiming(File inputFile) {
+		this(inputFile, null);
+	}
+
+
+	/**
+	 * Constructor of {@link ExtractWindowsFromHicTiming}
+	 * @param store the HiC/timing lines already extracted
+	 */
+	public ExtractWindowsFromHicTiming(HicTimingLineFile store) {
+		this(null, store);
+	}
+
+
+	/**
+	 * Constructor of {@link ExtractWindowsFromHicTiming}
+	 * @param inputFile	the input file
+	 * @param store		the HiC/timing lines already extracted (null to read the input file)
+	 */
+	private ExtractWindowsFromHicTiming(File inputFile, HicTimingLineFile store) {
 		super(inputFile, new HicTimingLine(null));
 		actionName = "Extract all HiC position from the file to a list.";
 		fullList = new ChromosomeArrayListOfLists<>();
+		this.store = store;
+		chromosomeIndexes = new int[256];
+		Arrays.fill(chromosomeIndexes, -1);
 
 		projectChromosome = ProjectChromosome.getInstance();
 		int chromosomeNumber = projectChromosome.getChromosomeList().size();
+		lists = new IntArrayAsIntegerList[chromosomeNumber];
 		for (int i = 0; i < chromosomeNumber; i++) {
-			fullList.add(new IntArrayAsIntegerList());
+			lists[i] = new IntArrayAsIntegerList();
+			fullList.add(lists[i]);
 		}
 	}
 
 
 	@Override
 	protected void processCurrentLine() {
-		fullList.add(projectChromosome.get(line.getFirstChromosome()), line.getFirstPosition());
-		fullList.add(projectChromosome.get(line.getSecondChromosome()), line.getSecondPosition());
+		int firstPosition = line.getFirstPositionInt();
+		boolean isValid = line.isParseValid();
+		int secondPosition = line.getSecondPositionInt();
+		isValid &= line.isParseValid();
+
+		// a line with a position that is not a number is skipped, as it is when merging the ORI
+		if (isValid) {
+			lists[projectChromosome.getIndex(line.getFirstChromosome())].addInt(firstPosition);
+			lists[projectChromosome.getIndex(line.getSecondChromosome())].addInt(secondPosition);
+		}
+	}
+
+
+	@Override
+	protected Object compute() {
+		if (store == null) {
+			return super.compute();
+		}
+		ByteArrayAsChromosomeList firstChromosome = store.getFirstChromosome();
+		IntArrayAsIntegerList firstPosition = store.getFirstPosition();
+		ByteArrayAsChromosomeList secondChromosome = store.getSecondChromosome();
+		IntArrayAsIntegerList secondPosition = store.getSecondPosition();
+		int size = store.getSize();
+		for (int i = 0; i < size; i++) {
+			currentLineNumber = store.getLineNumber(i);
+			if ((firstPosition.getInt(i) != LineTokenizer.INVALID_INT) && (secondPosition.getInt(i) != LineTokenizer.INVALID_INT)) {
+				lists[getChromosomeIndex(firstChromosome.getCode(i))].addInt(firstPosition.getInt(i));
+				lists[getChromosomeIndex(secondChromosome.getCode(i))].addInt(secondPosition.getInt(i));
+			}
+		}
+		return null;
+	}
+
+
+	/**
+	 * @param code the code of a chromosome in the HiC/timing lines
+	 * @return the index of the chromosome in the project
+	 */
+	private int getChromosomeIndex (byte code) {
+		int index = chromosomeIndexes[code + 128];
+		if (index == -1) {
+			index = projectChromosome.getIndex(ByteArrayAsChromosomeList.getName(code));
+			chromosomeIndexes[code + 128] = index;
+		}
+		return index;
 	}
 
 
@@ -83,10 +160,17 @@ public class ExtractWindowsFromHicTiming extends LineFileReader<HicTimingLine> {
 
 	@Override
 	protected void doAtTheEnd() {
-		int chromosomeNumber = projectChromosome.getChromosomeList().size();
-		for (int i = 0; i < chromosomeNumber; i++) {
-			((IntArrayAsIntegerList) fullList.get(i)).sort();
+		// the chromosomes are sorted concurrently, each of them with a parallel sort
+		List<Runnable> jobs = new ArrayList<>();
+		for (final IntArrayAsIntegerList list: lists) {
+			jobs.add(new Runnable() {
+				@Override
+				public void run() {
+					list.parallelSort();
+				}
+			});
 		}
+		ArraySorter.invokeAll(jobs);
 	}
 
 }
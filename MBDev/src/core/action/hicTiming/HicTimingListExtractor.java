@@ -0,0 +1,77 @@
+/*******************************************************************************
+ * Montpellier Biology Developpment
+ * This project aims to create a tool to process and analyse data of a project in the field of Biology.
+ * Copyright (C) 2012, Nicolas Fourel
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Authors:
+ * 	Nicolas Fourel <nicolas.fourel@live.fr>
+ * 	Romain Desprat <rdesprat@gmail.com>
+ ******************************************************************************/
+package core.action.hicTiming;
+
+import java.io.File;
+
+import core.action.file.LineFileReader;
+import core.fileLine.HicTimingLine;
+import core.list.file.HicTimingLineFile;
+
+
+/**
+ * Extracts the valid lines of a HiC/timing file to a {@link HicTimingLineFile}, with their line numbers.
+ * @author Nicolas Fourel
+ * @version 0.1
+ */
+public class HicTimingListExtractor extends LineFileReader<HicTimingLine> {
+
+	/** Generated default serial version ID */
+	private static final long serialVersionUID = -2291472925064410637L;
+
+	private final HicTimingLineFile list;	// The HiC/timing lines.
+
+
+	/**
+	 * Constructor of {@link HicTimingListExtractor}
+	 * @param inputFile the input file
+	 */
+	public HicTimingListExtractor(File inputFile) {
+		super(inputFile, new HicTimingLine(null));
+		actionName = "Extract HiC/timing data to a list.";
+		list = new HicTimingLineFile();
+	}
+
+
+	@Override
+	protected void processCurrentLine() {
+		list.add(line, getCurrentLineNumber());
+	}
+
+
+	/**
+	 * @return the HiC/timing lines
+	 */
+	public HicTimingLineFile getList() {
+		return list;
+	}
+
+
+	@Override
+	protected void doFirst() {}
+
+
+	@Override
+	protected void doAtTheEnd() {}
+
+}
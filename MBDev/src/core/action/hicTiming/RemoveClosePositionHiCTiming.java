@@ -22,13 +22,13 @@
  ******************************************************************************/
 package core.action.hicTiming;
 
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
-import java.io.IOException;
 
 import core.action.file.LineFileReader;
+import core.action.file.LineRunWriter;
+import core.action.file.OutputSink;
 import core.fileLine.HicTimingFullLine;
+import core.fileLine.LineBatch;
 
 
 /**
@@ -44,8 +44,8 @@ public class RemoveClosePositionHiCTiming extends LineFileReader<HicTimingFullLi
 	private final File outputFile;		// The output file.
 
 	private boolean isReadyToWrite;		// Says if the output file is ready.
-	private FileWriter fw;				// The file writer.
-	private BufferedWriter out;			// The buffered writer.
+	private OutputSink out;				// The output sink.
+	private LineRunWriter runs;			// The writer of the kept lines.
 	private final int controlLength;	// The length threshold.
 	private int discardedLine;			// Number of discarded lines.
 
@@ -69,17 +69,14 @@ public class RemoveClosePositionHiCTiming extends LineFileReader<HicTimingFullLi
 	@Override
 	protected void processCurrentLine() {
 		if (isReadyToWrite) {
-			int diff = Math.abs(line.getFirstPosition() - line.getSecondPosition());
-
-			if (diff > controlLength) {
-				String newLine = line.getLine();
-				if (newLine != null) {
-					try {
-						out.write(newLine + "\n");
-					} catch (IOException e) {
-						e.printStackTrace();
-					}
-				}
+			int firstPosition = line.getFirstPositionInt();
+			boolean isValid = line.isParseValid();
+			int secondPosition = line.getSecondPositionInt();
+			isValid &= line.isParseValid();
+			int diff = Math.abs(firstPosition - secondPosition);
+
+			if (isValid && (diff > controlLength)) {
+				keepCurrentLine(runs);
 			} else {
 				discardedLine++;
 			}
@@ -88,34 +85,30 @@ public class RemoveClosePositionHiCTiming extends LineFileReader<HicTimingFullLi
 
 
 	@Override
-	protected void doFirst() {
-		try {
-			fw = new FileWriter(outputFile);
-			out = new BufferedWriter(fw);
-			isReadyToWrite = true;
-		} catch (IOException e) {
-			e.printStackTrace();
+	public void processBatch(LineBatch batch) {
+		super.processBatch(batch);
+		if (runs != null) {
+			runs.flush();
 		}
 	}
 
 
 	@Override
-	protected void doAtTheEnd() {
-		if (out != null) {
-			try {
-				out.close();
-			} catch (Exception e) {
-				e.printStackTrace();
-			}
+	protected void doFirst() {
+		out = openOutputSink(outputFile);
+		isReadyToWrite = out != null;
+		if (isReadyToWrite) {
+			runs = new LineRunWriter(out);
 		}
+	}
 
-		if (fw != null) {
-			try {
-				fw.close();
-			} catch (Exception e) {
-				e.printStackTrace();
-			}
+
+	@Override
+	protected void doAtTheEnd() {
+		if (runs != null) {
+			runs.flush();
 		}
+		OutputSink.close(out);
 
 		System.out.println("Number of discarded lines: " + discardedLine);
 	}
@@ -22,17 +22,17 @@
  ******************************************************************************/
 package core.action.hicTiming;
 
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import core.action.file.LineFileReader;
+import core.action.file.LineRunWriter;
+import core.action.file.OutputSink;
 import core.fileLine.HicTimingFullLine;
+import core.fileLine.LineBatch;
 
 
 /**
@@ -47,8 +47,8 @@ public class RemoveDuplicateHiCTiming extends LineFileReader<HicTimingFullLine>
 	private final Map<String, Integer> idMap;	// The map of inserted lines.
 	private final File outputFile;				// The output file.
 	private boolean isReadyToWrite;				// Says if the output file is ready.
-	private FileWriter fw;						// The file writer.
-	private BufferedWriter out;					// The buffered writer.
+	private OutputSink out;						// The output sink.
+	private LineRunWriter runs;					// The writer of the kept lines.
 
 
 	/**
@@ -67,55 +67,60 @@ public class RemoveDuplicateHiCTiming extends LineFileReader<HicTimingFullLine>
 
 	@Override
 	protected void processCurrentLine() {
+		if (isReadyToWrite && isFirstOccurrence(line.getName())) {
+			keepCurrentLine(runs);
+		}
+	}
+
+
+	@Override
+	public void processBatch(LineBatch batch) {
 		if (isReadyToWrite) {
-			String name = line.getName();
-			Integer cpt = idMap.get(name);
-			if (cpt == null) {
-				String newLine = line.getLine();
-				if (newLine != null) {
-					idMap.put(name, 1);
-					try {
-						out.write(newLine + "\n");
-					} catch (IOException e) {
-						e.printStackTrace();
-					}
+			int columnNumber = line.getColumnNumber();
+			int size = batch.getSize();
+			for (int i = 0; i < size; i++) {
+				if ((batch.getColumnNumber(i) == columnNumber) && isFirstOccurrence(batch.getString(i, 0))) {
+					runs.keep(batch, i);
 				}
-			} else {
-				idMap.put(name, cpt + 1);
 			}
+			runs.flush();
+		}
+		currentLineNumber = batch.getLastLineNumber();
+	}
+
+
+	/**
+	 * Counts an occurrence of an ID
+	 * @param name the ID of a line
+	 * @return true if the ID has not been seen before, false otherwise
+	 */
+	private boolean isFirstOccurrence (String name) {
+		Integer cpt = idMap.get(name);
+		if (cpt == null) {
+			idMap.put(name, 1);
+			return true;
 		}
+		idMap.put(name, cpt + 1);
+		return false;
 	}
 
 
 	@Override
 	protected void doFirst() {
-		try {
-			fw = new FileWriter(outputFile);
-			out = new BufferedWriter(fw);
-			isReadyToWrite = true;
-		} catch (IOException e) {
-			e.printStackTrace();
+		out = openOutputSink(outputFile);
+		isReadyToWrite = out != null;
+		if (isReadyToWrite) {
+			runs = new LineRunWriter(out);
 		}
 	}
 
 
 	@Override
 	protected void doAtTheEnd() {
-		if (out != null) {
-			try {
-				out.close();
-			} catch (Exception e) {
-				e.printStackTrace();
-			}
-		}
-
-		if (fw != null) {
-			try {
-				fw.close();
-			} catch (Exception e) {
-				e.printStackTrace();
-			}
+		if (runs != null) {
+			runs.flush();
 		}
+		OutputSink.close(out);
 
 		int cpt01 = 0;
 		int cpt02 = 0;
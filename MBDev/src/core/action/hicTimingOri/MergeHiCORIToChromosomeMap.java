@@ -23,16 +23,18 @@
 package core.action.hicTimingOri;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 
 import core.action.Action;
 import core.chromosome.ProjectChromosome;
-import core.fileLine.ORILine;
 import core.list.ChromosomeListOfLists;
+import core.list.HiCORIMap;
 import core.list.IntArrayAsIntegerList;
+import core.list.IntIndex;
 import core.list.file.ORILineFile;
+import core.util.ChromosomeShards;
 
 
 /**
@@ -44,12 +46,18 @@ public class MergeHiCORIToChromosomeMap extends Action {
 	/** Generated default serial version ID */
 	private static final long serialVersionUID = 4495558610088027673L;
 
+	public static final int SEARCH_MODE = 0;	// Search the closest HiC position of every ORI in the HiC positions.
+	public static final int SWEEP_MODE = 1;		// Walk along the ORI (sorted by start position) and the HiC positions of a chromosome together, one chromosome per thread.
+
 	private final ProjectChromosome projectChromosome;				// The instance of the chromosome project.
-	private final List<Map<Integer, Map<Integer, List<Integer>>>> fullList;	// The list between Ori and HiC.
+	private final List<HiCORIMap> fullList;						// The list between Ori and HiC.
 
 	private final List<ORILineFile> oriList;					// The Ori list.
 	private final ChromosomeListOfLists<Integer> hicList;		// The HiC list.
 	private final int length;
+	private final IntIndex[] hicIndexes;						// The indexes of the HiC positions (built when needed in search mode).
+	private int mode;											// The way the ORI are related to the HiC positions.
+	private boolean hasFailed;									// Says if a chromosome of the map has failed to be computed.
 
 
 	/**
@@ -64,42 +72,176 @@ public class MergeHiCORIToChromosomeMap extends Action {
 		this.hicList = hicList;
 		length = threshold;
 		fullList = new ArrayList<>();
+		hicIndexes = new IntIndex[hicList.size()];
+		mode = SEARCH_MODE;
 
 		projectChromosome = ProjectChromosome.getInstance();
 		int chromosomeNumber = projectChromosome.getChromosomeList().size();
 		for (int i = 0; i < chromosomeNumber; i++) {
-			fullList.add(new HashMap<Integer, Map<Integer, List<Integer>>>());
+			fullList.add(new HiCORIMap());
 		}
 	}
 
 
 	@Override
 	protected Object compute() {
+		hasFailed = false;
+		if (mode == SWEEP_MODE) {
+			computeSweep();
+		} else {
+			for (int fileIndex = 0; fileIndex < oriList.size(); fileIndex++) {
+				computeSearch(fileIndex);
+			}
+		}
+		for (HiCORIMap currentMap: fullList) {
+			currentMap.build();
+		}
+		return null;
+	}
+
+
+	/**
+	 * Relates the ORI of a file to their closest HiC position with a search in the HiC positions for every ORI
+	 * @param fileIndex index of the ORI file
+	 */
+	private void computeSearch (int fileIndex) {
+		ORILineFile currentORIList = oriList.get(fileIndex);
+		for (int oriIndex = 0; oriIndex < currentORIList.getSize(); oriIndex++) {
+			int chromosomeIndex = projectChromosome.getIndex(currentORIList.getChromosome(oriIndex));
+			int oriPosition = currentORIList.getStartPosition(oriIndex);
+			if (hicIndexes[chromosomeIndex] == null) {
+				hicIndexes[chromosomeIndex] = new IntIndex((IntArrayAsIntegerList) hicList.get(chromosomeIndex));
+			}
+			IntIndex currentHICIndex = hicIndexes[chromosomeIndex];
+			int hicIndex = currentHICIndex.getNearestIndex(oriPosition);
+			if (hicIndex != -1) {
+				insert(chromosomeIndex, currentHICIndex.get(hicIndex), fileIndex, oriIndex, oriPosition);
+			}
+		}
+	}
+
+
+	/**
+	 * Relates the ORI to their closest HiC position with a merge join, one chromosome per shard.
+	 * The ORI files that cannot be swept (several chromosomes, ORI not sorted, chromosome shared with another file) are searched afterwards.
+	 */
+	private void computeSweep () {
+		List<Callable<Void>> jobs = new ArrayList<>();
+		List<Integer> otherFiles = new ArrayList<>();
+		boolean[] isChromosomeUsed = new boolean[fullList.size()];
 		for (int fileIndex = 0; fileIndex < oriList.size(); fileIndex++) {
 			ORILineFile currentORIList = oriList.get(fileIndex);
+			if (currentORIList.getSize() > 0) {
+				int chromosomeIndex = projectChromosome.getIndex(currentORIList.getChromosome(0));
+				if (isSweepable(currentORIList) && !isChromosomeUsed[chromosomeIndex]) {
+					isChromosomeUsed[chromosomeIndex] = true;
+					jobs.add(new SweepJob(fileIndex, chromosomeIndex));
+				} else {
+					otherFiles.add(fileIndex);
+				}
+			}
+		}
+
+		try {
+			ChromosomeShards.invokeAll(jobs);
+		} catch (ExecutionException e) {
+			e.printStackTrace();
+			hasFailed = true;
+			return;
+		}
+
+		for (int fileIndex: otherFiles) {
+			computeSearch(fileIndex);
+		}
+	}
+
+
+	/**
+	 * @param currentORIList a list of ORI
+	 * @return true if the ORI are all on the same chromosome and sorted by start position, false otherwise
+	 */
+	private boolean isSweepable (ORILineFile currentORIList) {
+		String chromosome = currentORIList.getChromosome(0);
+		for (int oriIndex = 1; oriIndex < currentORIList.getSize(); oriIndex++) {
+			if (!currentORIList.getChromosome(oriIndex).equals(chromosome) || (currentORIList.getStartPosition(oriIndex) < currentORIList.getStartPosition(oriIndex - 1))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+
+	/**
+	 * Relates the sorted ORI of a file to their closest HiC position by walking along the ORI and the sorted HiC positions of their chromosome at the same time
+	 */
+	private class SweepJob implements Callable<Void> {
+
+		private final int fileIndex;		// Index of the ORI file.
+		private final int chromosomeIndex;	// Index of the chromosome of the ORI.
+
+
+		/**
+		 * Constructor of {@link SweepJob}
+		 * @param fileIndex			index of the ORI file
+		 * @param chromosomeIndex	index of the chromosome of the ORI
+		 */
+		private SweepJob (int fileIndex, int chromosomeIndex) {
+			this.fileIndex = fileIndex;
+			this.chromosomeIndex = chromosomeIndex;
+		}
+
+
+		@Override
+		public Void call() {
+			ORILineFile currentORIList = oriList.get(fileIndex);
+			IntArrayAsIntegerList currentHICList = (IntArrayAsIntegerList) hicList.get(chromosomeIndex);
+			int hicSize = currentHICList.size();
+			if (hicSize == 0) {
+				return null;
+			}
+
+			int hicIndex = 0;	// index of the first HiC position greater than or equal to the ORI position
 			for (int oriIndex = 0; oriIndex < currentORIList.getSize(); oriIndex++) {
-				ORILine oriLine = currentORIList.getLine(oriIndex);
-				int chromosomeIndex = projectChromosome.getIndex(oriLine.getChromosome());
-				IntArrayAsIntegerList currentHICList = (IntArrayAsIntegerList) hicList.get(chromosomeIndex);
-				int hicIndex = currentHICList.getClosestIndex(oriLine.getStartPosition());
-				if (hicIndex != -1) {
-					int hicValue = currentHICList.get(hicIndex);
-					if (canBeInserted(hicValue, oriLine.getStartPosition())) {
-						Map<Integer, Map<Integer, List<Integer>>> currentMap = fullList.get(chromosomeIndex);
-						if (currentMap.get(hicValue) == null) {
-							currentMap.put(hicValue, new HashMap<Integer, List<Integer>>());
-						}
-						
-						if (currentMap.get(hicValue).get(fileIndex) == null) {
-							currentMap.get(hicValue).put(fileIndex, new ArrayList<Integer>());
-						}
-						
-						currentMap.get(hicValue).get(fileIndex).add(oriIndex);
-					}
+				int oriPosition = currentORIList.getStartPosition(oriIndex);
+				while ((hicIndex < hicSize) && (currentHICList.getInt(hicIndex) < oriPosition)) {
+					hicIndex++;
+				}
+
+				// the closest position, the greatest one if two positions are at the same distance
+				int closestIndex = hicIndex;
+				if (hicIndex == hicSize) {
+					closestIndex = hicSize - 1;
+				} else if ((hicIndex > 0) && ((oriPosition - currentHICList.getInt(hicIndex - 1)) < (currentHICList.getInt(hicIndex) - oriPosition))) {
+					closestIndex = hicIndex - 1;
 				}
+				insert(chromosomeIndex, currentHICList.getInt(closestIndex), fileIndex, oriIndex, oriPosition);
 			}
+			return null;
+		}
+	}
+
+
+	/**
+	 * Relates an ORI to a HiC position if they are close enough, with their distance
+	 * (without threshold, the map can then be read for any threshold, see {@link HiCORIMap#getORINumber(int, int)})
+	 * @param chromosomeIndex	index of the chromosome
+	 * @param hicValue			the HiC position
+	 * @param fileIndex			index of the ORI file
+	 * @param oriIndex			index of the ORI in the file
+	 * @param oriPosition		the ORI position
+	 */
+	private void insert (int chromosomeIndex, int hicValue, int fileIndex, int oriIndex, int oriPosition) {
+		if (canBeInserted(hicValue, oriPosition)) {
+			fullList.get(chromosomeIndex).add(hicValue, fileIndex, oriIndex, Math.abs(hicValue - oriPosition));
 		}
-		return null;
+	}
+
+
+	/**
+	 * @param mode the way the ORI are related to the HiC positions ({@link #SEARCH_MODE} or {@link #SWEEP_MODE})
+	 */
+	public void setMode (int mode) {
+		this.mode = mode;
 	}
 
 
@@ -110,27 +252,26 @@ public class MergeHiCORIToChromosomeMap extends Action {
 	 * @return	true if the position can be inserted, false otherwise
 	 */
 	private boolean canBeInserted (int hicPosition, int oriPosition) {
-		if (length == -1) {
-			return true;
-		}
-
-		int diff = Math.abs(hicPosition - oriPosition);
-		if (diff < length) {
-			return true;
-		}
-
-		return false;
+		return HiCORIMap.isInThreshold(Math.abs(hicPosition - oriPosition), length);
 	}
 
 
 	/**
 	 * @return the list
 	 */
-	public List<Map<Integer, Map<Integer, List<Integer>>>> getList() {
+	public List<HiCORIMap> getList() {
 		return fullList;
 	}
 
 
+	/**
+	 * @return true if a chromosome of the map has failed to be computed (the map is then not complete and must not be used), false otherwise
+	 */
+	public boolean hasFailed() {
+		return hasFailed;
+	}
+
+
 	@Override
 	protected void doFirst() {}
 
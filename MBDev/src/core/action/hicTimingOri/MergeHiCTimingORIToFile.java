@@ -22,27 +22,28 @@
  ******************************************************************************/
 package core.action.hicTimingOri;
 
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
-import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 
 import core.action.file.LineFileReader;
+import core.action.file.OutputSink;
 import core.chromosome.ProjectChromosome;
-import core.fileLine.HicTimingLine;
-import core.fileLine.ORILine;
+import core.counter.ReportAccumulator;
+import core.fileLine.LineTokenizer;
+import core.fileLine.RecordFormatter;
+import core.list.ByteArrayAsChromosomeList;
+import core.list.HiCORIAnnotations;
+import core.list.HiCORIMap;
+import core.list.IntCursor;
+import core.list.file.HicTimingLineFile;
 import core.list.file.ORILineFile;
 
 /**
  * @author Nicolas Fourel
  * @version 0.1
  */
-public class MergeHiCTimingORIToFile extends LineFileReader<HicTimingLine> {
+public class MergeHiCTimingORIToFile extends LineFileReader<Void> {
 
 	/** Generated default serial version ID */
 	private static final long serialVersionUID = 4495558610088027673L;
@@ -50,205 +51,209 @@ public class MergeHiCTimingORIToFile extends LineFileReader<HicTimingLine> {
 	public static final int NUMBER = 0;
 	public static final int NAMES = 1;
 
+	public static final int SEARCH_MODE = 0; // Search every HiC position in the hash table of the map of its chromosome.
+	public static final int CURSOR_MODE = 1; // Walk along the HiC positions of the maps with a cursor per chromosome and HiC end while the lines are sorted by first chromosome and position.
+
 	private final int insertOption;
 	private final boolean clean;
 
 	private final File outputFile;
 	private final ProjectChromosome projectChromosome; // The instance of the chromosome project.
-	private final List<Map<Integer, Map<Integer, List<Integer>>>> map; // The list between Ori and HiC.
+	private final List<HiCORIMap> map; // The list between Ori and HiC.
 	private final List<ORILineFile> oriList;
+	private final HicTimingLineFile store; // The HiC/timing lines already extracted.
+	private final int[] chromosomeIndexes; // The chromosome indexes, by chromosome code + 128 (-1 if not known yet).
+
+	private final ReportAccumulator report; // The statistics report.
+	private final RecordFormatter formatter; // The formatter of the output lines.
+	private final HiCORIAnnotations[] annotations; // The values to insert of the HiC positions, by chromosome (built when needed).
 
-	private final Map<Integer, List<Integer>> report; // The statistics report.
+	private int threshold; // The length threshold of the ORI read in the maps (no threshold: -1).
+	private int mode; // The way the HiC positions are searched in the maps.
+	private IntCursor[] firstCursors; // The cursors of the first HiC positions, by chromosome index (CURSOR_MODE only).
+	private IntCursor[] secondCursors; // The cursors of the second HiC positions, by chromosome index (CURSOR_MODE only).
+	private int lastFirstChromosomeIndex; // The chromosome index of the last first HiC position (CURSOR_MODE only).
 
+	private int invalidLines; // The number of lines skipped because a position is not a valid number.
 	private boolean isReadyToWrite; // Says if the output file is ready.
-	private FileWriter fw; // The file writer.
-	private BufferedWriter out; // The buffered writer.
+	private OutputSink out; // The output sink.
 
 	/**
 	 * Constructor of {@link MergeHiCTimingORIToFile}
 	 * 
-	 * @param inputFile the input file
+	 * @param store the HiC/timing lines already extracted
 	 * @param outputFile the output file
 	 * @param map the list between Ori and HiC
 	 * @param insertOption  the Ori insert option (number or names)
 	 * @param clean true if the file has to be clean (no lines without Ori match), false to insert everything
 	 */
-	public MergeHiCTimingORIToFile(File inputFile, File outputFile, List<Map<Integer, Map<Integer, List<Integer>>>> map, List<ORILineFile> oriList, int insertOption, boolean clean) {
-		super(inputFile, new HicTimingLine(null));
+	public MergeHiCTimingORIToFile(HicTimingLineFile store, File outputFile, List<HiCORIMap> map, List<ORILineFile> oriList, int insertOption, boolean clean) {
+		super(null, null);
+		this.store = store;
+		this.chromosomeIndexes = new int[256];
+		Arrays.fill(chromosomeIndexes, -1);
 		this.outputFile = outputFile;
 		this.map = map;
 		this.oriList = oriList;
 		this.insertOption = insertOption;
 		this.clean = clean;
-		this.report = new HashMap<>();
+		this.report = new ReportAccumulator();
+		this.formatter = new RecordFormatter();
+		this.annotations = new HiCORIAnnotations[map.size()];
 		projectChromosome = ProjectChromosome.getInstance();
+		threshold = -1;
+		mode = SEARCH_MODE;
 		isReadyToWrite = false;
 		actionName = "Merge HiC/Timing with ORI information to a file.";
 	}
 
 	@Override
 	protected void processCurrentLine() {
-		if (isReadyToWrite) {
-			String firstValue;
-			String secondValue;
-
-			// Get first value
-			firstValue = getValue(line.getFirstChromosome(), line.getFirstPosition());
-
-			// Get second value
-			secondValue = getValue(line.getSecondChromosome(), line.getSecondPosition());
-
-			if (canBeInserted(firstValue, secondValue)) {
-				// Get the line
-				String s = buildLine(line, firstValue, secondValue);
+		// the lines are read from the store, no input file is read
+	}
 
-				if (s != null) {
-					try {
-						out.write(s + "\n");
-					} catch (IOException e) {
-						e.printStackTrace();
+	@Override
+	protected Object compute() {
+		if (isReadyToWrite) {
+			ByteArrayAsChromosomeList firstChromosome = store.getFirstChromosome();
+			ByteArrayAsChromosomeList secondChromosome = store.getSecondChromosome();
+			int size = store.getSize();
+			for (int i = 0; i < size; i++) {
+				currentLineNumber = store.getLineNumber(i);
+				int firstPosition = store.getFirstPosition().getInt(i);
+				int secondPosition = store.getSecondPosition().getInt(i);
+				// the store keeps the positions that could not be parsed as invalid values
+				if ((firstPosition != LineTokenizer.INVALID_INT) && (secondPosition != LineTokenizer.INVALID_INT)) {
+					int firstChromosomeIndex = getChromosomeIndex(firstChromosome.getCode(i));
+					int firstIndex = getPositionIndex(firstChromosomeIndex, firstPosition, true);
+					int secondChromosomeIndex = getChromosomeIndex(secondChromosome.getCode(i));
+					int secondIndex = getPositionIndex(secondChromosomeIndex, secondPosition, false);
+					if (canBeInserted(firstIndex, secondIndex)) {
+						buildLine(i, firstChromosomeIndex, firstIndex, secondChromosomeIndex, secondIndex);
+						out.writeLine(formatter);
 					}
+				} else {
+					invalidLines++;
 				}
 			}
 		}
+		return null;
 	}
 
 	/**
-	 * Look for the value to insert in the final line
-	 * @param chromosome a chromosome
-	 * @param position a position on the chromosome
-	 * @return the value to insert (number/list of ORI)
+	 * @param code the code of a chromosome in the HiC/timing lines
+	 * @return the index of the chromosome in the project
 	 */
-	private String getValue(String chromosome, int position) {
-		int chromosomeIndex = projectChromosome.getIndex(chromosome);
-		Map<Integer, List<Integer>> currentMap = map.get(chromosomeIndex).get(position);
-		List<ORILine> currentList = new ArrayList<ORILine>();
-
-		if (currentMap != null) {
-			for (Integer fileIndex: currentMap.keySet()) {
-				for (Integer oriIndex: currentMap.get(fileIndex)) {
-					currentList.add(oriList.get(fileIndex).getLine(oriIndex));
-				}
-			}
+	private int getChromosomeIndex(byte code) {
+		int index = chromosomeIndexes[code + 128];
+		if (index == -1) {
+			index = projectChromosome.getIndex(ByteArrayAsChromosomeList.getName(code));
+			chromosomeIndexes[code + 128] = index;
 		}
+		return index;
+	}
 
-		String value = null;
-		if (currentList.size() == 0) {
-			if (insertOption == NUMBER) {
-				value = "0";
-			} else if (insertOption == NAMES) {
-				value = "-";
+	/**
+	 * Look for a HiC position in the map and updates the report
+	 * @param chromosomeIndex the index of a chromosome
+	 * @param position a position on the chromosome
+	 * @param isFirst true if the position is the first one of the line, false if it is the second one
+	 * @return the index of the position in the map of the chromosome, -1 if the position has no ORI (closer than the threshold)
+	 */
+	private int getPositionIndex(int chromosomeIndex, int position, boolean isFirst) {
+		HiCORIMap currentMap = map.get(chromosomeIndex);
+		IntCursor cursor = null;
+		if (mode == CURSOR_MODE) {
+			cursor = getCursor(chromosomeIndex, isFirst);
+		}
+		int positionIndex;
+		if (cursor != null) {
+			positionIndex = cursor.getCeilingIndex(position);
+			if ((positionIndex == currentMap.size()) || (currentMap.getPosition(positionIndex) != position)) {
+				positionIndex = -1;
+			}
+			if (isFirst && !cursor.isMonotone()) {
+				setUnsorted();
 			}
 		} else {
-			if (insertOption == NUMBER) {
-				value = "" + currentList.size();
-			} else if (insertOption == NAMES) {
-				value = getIDString(currentList);
+			positionIndex = currentMap.getIndex(position);
+		}
+		int oriNumber = 0;
+		if (positionIndex != -1) {
+			oriNumber = currentMap.getORINumber(positionIndex, threshold);
+			if (oriNumber == 0) {
+				// all the ORI of the position are beyond the threshold: as in a map built with the threshold, the position is absent
+				positionIndex = -1;
 			}
 		}
-		updateReport(currentList);
-		return value;
+		report.add(oriNumber, getCurrentLineNumber());
+		return positionIndex;
 	}
 
 	/**
-	 * @param currentList list of ORI
-	 * @return the list of ORI names
+	 * The first HiC positions must come by chromosome and by increasing position: when a chromosome comes back, the input is not sorted.
+	 * The second HiC positions are close to each other but not sorted: their cursors gallop from the previous position, forward or backward.
+	 * 
+	 * @param chromosomeIndex the index of a chromosome
+	 * @param isFirst true for the cursor of the first HiC position, false for the one of the second HiC position
+	 * @return the cursor of the chromosome, null if the input is not sorted
 	 */
-	private String getIDString(List<ORILine> currentList) {
-		String names = "";
-		int size = currentList.size();
-		if (size == 0) {
-			names = "-";
-		} else {
-			for (int i = 0; i < size; i++) {
-				names += currentList.get(i).getElements()[3];
-				if (i < (size - 1)) {
-					names += ";";
+	private IntCursor getCursor(int chromosomeIndex, boolean isFirst) {
+		IntCursor[] cursors = secondCursors;
+		if (isFirst) {
+			cursors = firstCursors;
+			if (chromosomeIndex != lastFirstChromosomeIndex) {
+				if (cursors[chromosomeIndex] != null) {
+					setUnsorted();
+					return null;
 				}
+				lastFirstChromosomeIndex = chromosomeIndex;
 			}
 		}
-		return names;
+		if (cursors[chromosomeIndex] == null) {
+			cursors[chromosomeIndex] = map.get(chromosomeIndex).newCursor();
+		}
+		return cursors[chromosomeIndex];
 	}
 
 	/**
-	 * Update the report
-	 * @param list list of ORI
+	 * Goes back to the {@link #SEARCH_MODE} for the rest of the lines
 	 */
-	private void updateReport(List<ORILine> list) {
-		int oriNumber = 0;
-		if (list != null) {
-			oriNumber = list.size();
-		}
-		if (report.get(oriNumber) == null) {
-			report.put(oriNumber, new ArrayList<Integer>());
-		}
-		report.get(oriNumber).add(getCurrentLineNumber());
+	private void setUnsorted() {
+		mode = SEARCH_MODE;
+		firstCursors = null;
+		secondCursors = null;
 	}
 
 	/**
-	 * @return the report as a string
+	 * Appends the value to insert in the final line (number/list of ORI) to the formatter
+	 * @param chromosomeIndex the index of a chromosome
+	 * @param positionIndex the index of the position in the map of the chromosome, -1 if the position has no ORI
 	 */
-	private String getReport() {
-		String info = "";
-		List<Integer> oriNumbers = new ArrayList<>(report.keySet());
-		Collections.sort(oriNumbers);
-		for (Integer oriNumber : oriNumbers) {
-			List<Integer> lines = report.get(oriNumber);
-			List<Integer> noDupLines = getNoDuplicateLines(lines);
-			int numberEvent = lines.size();
-			int numberLines = noDupLines.size();
-
-			if (oriNumber == 0) {
-				info += oriNumber + " ORI found " + numberEvent + " times in " + numberLines + " lines";
-			} else {
-				info += oriNumber + " ORI(s) found " + numberEvent + " time(s) in " + numberLines + " line(s):";
-				int length = 20;
-				if (numberLines < length) {
-					length = numberLines;
-				}
-				int lastLine = -1;
-				for (int i = 0; i < length; i++) {
-					int currentLine = noDupLines.get(i);
-					if (lastLine != currentLine) {
-						info += currentLine;
-					}
-					lastLine = currentLine;
-					if (i < (length - 1)) {
-						info += ",";
-					}
-				}
+	private void appendValue(int chromosomeIndex, int positionIndex) {
+		if (positionIndex == -1) {
+			if (insertOption == NUMBER) {
+				formatter.append('0');
+			} else if (insertOption == NAMES) {
+				formatter.append('-');
 			}
-			info += "\n";
-		}
-		return info;
-	}
-
-	private List<Integer> getNoDuplicateLines(List<Integer> lines) {
-		List<Integer> result = new ArrayList<>();
-		result.add(lines.get(0));
-		int previousLine = lines.get(0);
-		int currentLine = previousLine;
-		for (int i = 1; i < lines.size(); i++) {
-			currentLine = lines.get(i);
-			if (previousLine != currentLine) {
-				result.add(currentLine);
+		} else {
+			if (annotations[chromosomeIndex] == null) {
+				annotations[chromosomeIndex] = new HiCORIAnnotations(map.get(chromosomeIndex), oriList, insertOption == NAMES, threshold);
 			}
-			previousLine = currentLine;
+			annotations[chromosomeIndex].append(positionIndex, formatter);
 		}
-
-		return result;
 	}
 
-
 	/**
 	 * If the clean option is activated, this method will reject all lines not related to Ori.
-	 * @param firstValue	the first value to insert
-	 * @param secondValue	the second value to insert
-	 * @return	true if the values are not null, false otherwise (always true if clean is not activated)
+	 * @param firstIndex	the index of the first position in its map (-1 if it has no ORI)
+	 * @param secondIndex	the index of the second position in its map (-1 if it has no ORI)
+	 * @return	true if one of the positions has ORI, false otherwise (always true if clean is not activated)
 	 */
-	private boolean canBeInserted (String firstValue, String secondValue) {
+	private boolean canBeInserted (int firstIndex, int secondIndex) {
 		if (clean) {
-			if ((firstValue.equals("0") && secondValue.equals("0")) || (firstValue.equals("-") && secondValue.equals("-"))) {
+			if ((firstIndex == -1) && (secondIndex == -1)) {
 				return false;
 			}
 		}
@@ -258,56 +263,64 @@ public class MergeHiCTimingORIToFile extends LineFileReader<HicTimingLine> {
 
 
 	/**
-	 * Create the line to insert
+	 * Create the line of the store to insert in the formatter
 	 * 
-	 * @param line the native line
-	 * @param firstValue the first names to insert
-	 * @param secondValue the second names to insert
-	 * @return the line to insert
+	 * @param index the index of the line in the store
+	 * @param firstChromosomeIndex the index of the first chromosome
+	 * @param firstIndex the index of the first position in its map (-1 if it has no ORI)
+	 * @param secondChromosomeIndex the index of the second chromosome
+	 * @param secondIndex the index of the second position in its map (-1 if it has no ORI)
 	 */
-	private String buildLine(HicTimingLine line, String firstValue, String secondValue) {
-		String s = "";
-		s += line.getFirstChromosome() + "\t";
-		s += line.getFirstPosition() + "\t";
-		s += line.getFirstTiming() + "\t";
-		s += firstValue + "\t";
-		s += line.getSecondChromosome() + "\t";
-		s += line.getSecondPosition() + "\t";
-		s += line.getSecondTiming() + "\t";
-		s += secondValue;
-		return s;
+	private void buildLine(int index, int firstChromosomeIndex, int firstIndex, int secondChromosomeIndex, int secondIndex) {
+		formatter.clear();
+		formatter.append(ByteArrayAsChromosomeList.getName(store.getFirstChromosome().getCode(index))).tab();
+		formatter.append(store.getFirstPosition().getInt(index)).tab();
+		formatter.append(store.getFirstTiming().getDouble(index)).tab();
+		appendValue(firstChromosomeIndex, firstIndex);
+		formatter.tab();
+		formatter.append(ByteArrayAsChromosomeList.getName(store.getSecondChromosome().getCode(index))).tab();
+		formatter.append(store.getSecondPosition().getInt(index)).tab();
+		formatter.append(store.getSecondTiming().getDouble(index)).tab();
+		appendValue(secondChromosomeIndex, secondIndex);
 	}
 
 	@Override
 	protected void doFirst() {
-		try {
-			fw = new FileWriter(outputFile);
-			out = new BufferedWriter(fw);
-			isReadyToWrite = true;
-		} catch (IOException e) {
-			e.printStackTrace();
+		out = openOutputSink(outputFile);
+		isReadyToWrite = out != null;
+		invalidLines = 0;
+		if (mode == CURSOR_MODE) {
+			firstCursors = new IntCursor[map.size()];
+			secondCursors = new IntCursor[map.size()];
+			lastFirstChromosomeIndex = -1;
 		}
 	}
 
 	@Override
 	protected void doAtTheEnd() {
-		if (out != null) {
-			try {
-				out.close();
-			} catch (Exception e) {
-				e.printStackTrace();
-			}
-		}
-
-		if (fw != null) {
-			try {
-				fw.close();
-			} catch (Exception e) {
-				e.printStackTrace();
-			}
-		}
+		OutputSink.close(out);
 		System.out.println("Report:");
-		System.out.println(getReport());
+		System.out.println(report.getReport());
+		System.out.println("Number of lines with an invalid position (skipped): " + invalidLines);
+	}
+
+	/**
+	 * The threshold must be set before running the action.
+	 * The maps must have been built without threshold (or with a greater one), they can then be shared by actions using different thresholds.
+	 * 
+	 * @param threshold the length threshold of the ORI read in the maps (no threshold: -1)
+	 */
+	public void setThreshold(int threshold) {
+		this.threshold = threshold;
+	}
+
+	/**
+	 * The mode must be set before running the action.
+	 * 
+	 * @param mode the way the HiC positions are searched in the maps ({@link #SEARCH_MODE} or {@link #CURSOR_MODE})
+	 */
+	public void setMode(int mode) {
+		this.mode = mode;
 	}
 
 }
@@ -43,7 +43,6 @@ public class ORIListExtractor extends LineFileReader<ORILine> {
 
 	private final ProjectChromosome projectChromosome;		// The instance of the chromosome project.
 	private final List<ORILineFile> list;
-	private final ORILine currentLine;
 
 	/**
 	 * Constructor of {@link ORIListExtractor}
@@ -53,7 +52,6 @@ public class ORIListExtractor extends LineFileReader<ORILine> {
 		super(file, new ORILine(null));
 		actionName = "Extract ORI data to a list.";
 		list = new ArrayList<>();
-		currentLine = new ORILine();
 		projectChromosome = ProjectChromosome.getInstance();
 		int chromosomeNumber = projectChromosome.getChromosomeList().size();
 		for (int i = 0; i < chromosomeNumber; i++) {
@@ -64,8 +62,7 @@ public class ORIListExtractor extends LineFileReader<ORILine> {
 
 	@Override
 	protected void processCurrentLine() {
-		currentLine.initialize(nativeLine);
-		list.get(projectChromosome.getIndex(currentLine.getChromosome())).add(currentLine);
+		list.get(projectChromosome.getIndex(line.getChromosome())).add(line);
 	}
 
 
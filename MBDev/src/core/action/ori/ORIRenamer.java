@@ -22,19 +22,21 @@
  ******************************************************************************/
 package core.action.ori;
 
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 
 import core.action.Action;
-import core.chromosome.Chromosome;
+import core.action.file.OutputSink;
 import core.chromosome.ProjectChromosome;
 import core.counter.ChromosomeCounter;
 import core.fileLine.ORILine;
+import core.fileLine.RecordFormatter;
+import core.list.IntArrayAsIntegerList;
 import core.list.file.ORILineFile;
+import core.util.ChromosomeShards;
 
 
 /**
@@ -49,10 +51,10 @@ public class ORIRenamer extends Action {
 	private final File outputFile;							// The output file.
 	private final List<ORILineFile> oriList;	// The list of Ori lines.
 	private final ChromosomeCounter counter;				// The instance of the chromosome counter.
+	private final RecordFormatter formatter;				// The formatter of the output lines.
 
-	private List<ORILine> insertedORI;	// The list of inserted Ori
-	private FileWriter fw;				// The file writer.
-	private BufferedWriter out;			// The buffered writer.
+	private OutputSink out;				// The output sink.
+	private boolean hasFailed;			// Says if the output file could not be written or a chromosome has failed to be renamed.
 
 
 	/**
@@ -63,38 +65,40 @@ public class ORIRenamer extends Action {
 	public ORIRenamer(File outputFile, List<ORILineFile> list) {
 		this.outputFile = outputFile;
 		oriList = list;
-		insertedORI = new ArrayList<>();
 		counter = ChromosomeCounter.getInstance();
+		formatter = new RecordFormatter();
 		actionName = "ORI line renamer (and delete duplicates).";
 	}
 
 
 	@Override
 	protected Object compute() {
-		List<Chromosome> chromosomeList = ProjectChromosome.getInstance().getChromosomeList();
-		for (int i = 0; i < chromosomeList.size(); i++) {
-			insertedORI = new ArrayList<>();
-			ORILineFile currentList = oriList.get(i);
-
-			int cpt = 0;
+		if (hasFailed) {
+			return null;
+		}
+		int chromosomeNumber = ProjectChromosome.getInstance().getChromosomeList().size();
+		List<Callable<IntArrayAsIntegerList>> shards = new ArrayList<>();
+		for (int i = 0; i < chromosomeNumber; i++) {
+			shards.add(new DuplicateShard(oriList.get(i)));
+		}
+		List<IntArrayAsIntegerList> insertedIndexes;
+		try {
+			insertedIndexes = ChromosomeShards.invokeAll(shards);
+		} catch (ExecutionException e) {
+			// no line is written: an output without the ORI of a chromosome would look complete
+			e.printStackTrace();
+			hasFailed = true;
+			return null;
+		}
 
-			for (int j = 0; j < currentList.getSize(); j++) {
-				ORILine currentLine = currentList.getLine(j);
-				cpt++;
-				if (cpt > 500) {
-					insertedORI = new ArrayList<>();
-					cpt = 0;
-				}
-				if (!insertedORI.contains(currentLine)) {
-					String line = buildLine(currentLine, counter.getCurrent());
-					counter.incrementCounter();
-					insertedORI.add(currentLine);
-					try {
-						out.write(line + "\n");
-					} catch (IOException e) {
-						e.printStackTrace();
-					}
-				}
+		// the names are given in the chromosome order, whatever the order the shards have been computed in
+		for (int i = 0; i < chromosomeNumber; i++) {
+			ORILineFile currentList = oriList.get(i);
+			IntArrayAsIntegerList currentIndexes = insertedIndexes.get(i);
+			for (int j = 0; j < currentIndexes.size(); j++) {
+				buildLine(currentList.getLine(currentIndexes.getInt(j)), counter.getCurrent());
+				counter.incrementCounter();
+				out.writeLine(formatter);
 			}
 		}
 
@@ -103,50 +107,84 @@ public class ORIRenamer extends Action {
 
 
 	/**
-	 * Create the line to insert
+	 * Create the line to insert in the formatter
 	 * @param line	the Ori line
 	 * @param name	the name to use
-	 * @return	the line to insert
 	 */
-	private String buildLine (ORILine line, String name) {
-		String current = "";
-		current += line.getChromosome() + "\t";
-		current += line.getStartPosition() + "\t";
-		current += line.getStopPosition() + "\t";
-		current += name + "\t";
-		current += line.getElements()[3] + "\t";
-		current += line.getElements()[5];
-		return current;
+	private void buildLine (ORILine line, String name) {
+		formatter.clear();
+		formatter.append(line.getChromosome()).tab();
+		formatter.append(line.getStartPositionInt()).tab();
+		formatter.append(line.getStopPositionInt()).tab();
+		formatter.append(name).tab();
+		formatter.append(line.getColumn(3)).tab();
+		formatter.append(line.getColumn(5));
 	}
 
 
 	@Override
 	protected void doFirst() {
-		try {
-			fw = new FileWriter(outputFile);
-			out = new BufferedWriter(fw);
-		} catch (IOException e) {
-			e.printStackTrace();
-		}
+		out = OutputSink.open(outputFile);
+		hasFailed = out == null;
 	}
 
 
 	@Override
 	protected void doAtTheEnd() {
 		if (out != null) {
-			try {
-				out.close();
-			} catch (Exception e) {
-				e.printStackTrace();
+			OutputSink.close(out);
+			if (hasFailed || out.hasFailed()) {
+				hasFailed = true;
+				outputFile.delete();
 			}
 		}
+	}
+
 
-		if (fw != null) {
-			try {
-				fw.close();
-			} catch (Exception e) {
-				e.printStackTrace();
+	/**
+	 * @return true if the output file could not be written or a chromosome has failed to be renamed (no output file is then left), false otherwise
+	 */
+	public boolean hasFailed() {
+		return hasFailed;
+	}
+
+
+	/**
+	 * Looks for the Ori lines of a chromosome to insert, the duplicates being looked for among the last 500 lines
+	 */
+	private static class DuplicateShard implements Callable<IntArrayAsIntegerList> {
+
+		private final ORILineFile currentList;	// The Ori lines of the chromosome.
+
+
+		/**
+		 * Constructor of {@link DuplicateShard}
+		 * @param currentList the Ori lines of the chromosome
+		 */
+		private DuplicateShard (ORILineFile currentList) {
+			this.currentList = currentList;
+		}
+
+
+		@Override
+		public IntArrayAsIntegerList call() {
+			IntArrayAsIntegerList insertedIndexes = new IntArrayAsIntegerList();
+			List<ORILine> insertedORI = new ArrayList<>();
+			int cpt = 0;
+
+			for (int j = 0; j < currentList.getSize(); j++) {
+				ORILine currentLine = currentList.getLine(j);
+				cpt++;
+				if (cpt > 500) {
+					insertedORI = new ArrayList<>();
+					cpt = 0;
+				}
+				if (!insertedORI.contains(currentLine)) {
+					insertedIndexes.addInt(j);
+					insertedORI.add(currentLine);
+				}
 			}
+			return insertedIndexes;
 		}
 	}
 
@@ -22,18 +22,18 @@
  ******************************************************************************/
 package core.action.ori;
 
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
-import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
 import core.action.Action;
+import core.action.file.OutputSink;
 import core.chromosome.ProjectChromosome;
 import core.comparator.ORILineComparator;
 import core.fileLine.ORILine;
 import core.list.ChromosomeListOfLists;
+import core.util.ArraySorter;
 
 
 /**
@@ -46,8 +46,7 @@ public class ORISort extends Action {
 
 	private final File outputFile;		// The output file.
 	private boolean isReadyToWrite;		// Says if the output file is ready.
-	private FileWriter fw;				// The file writer.
-	private BufferedWriter out;			// The buffered writer.
+	private OutputSink out;				// The output sink.
 
 	private final ChromosomeListOfLists<ORILine> list; // The list of Ori lines to sort.
 
@@ -69,26 +68,30 @@ public class ORISort extends Action {
 	protected Object compute() {
 		if (isReadyToWrite) {
 			int chromosomeNumber = ProjectChromosome.getInstance().getChromosomeList().size();
+			// the chromosomes are sorted concurrently, then written in the chromosome order
+			List<Runnable> jobs = new ArrayList<>();
 			for (int i = 0; i < chromosomeNumber; i++) {
-				Collections.sort(list.get(i), new ORILineComparator());
+				final List<ORILine> currentList = list.get(i);
+				jobs.add(new Runnable() {
+					@Override
+					public void run() {
+						Collections.sort(currentList, new ORILineComparator());
+					}
+				});
 			}
+			ArraySorter.invokeAll(jobs);
 
-			try {
-
-				for (int i = 0; i < chromosomeNumber; i++) {
-					List<ORILine> currentList = list.get(i);
-					int size = currentList.size();
-					for (int j = 0; j < size; j++) {
-						out.write(currentList.get(i).getLine());
-						if ((i == (chromosomeNumber - 1)) && (j == (size - 1))) {
-							// DO NOTHING
-						} else {
-							out.write("\n");
-						}
+			for (int i = 0; i < chromosomeNumber; i++) {
+				List<ORILine> currentList = list.get(i);
+				int size = currentList.size();
+				for (int j = 0; j < size; j++) {
+					out.write(currentList.get(i).getLine());
+					if ((i == (chromosomeNumber - 1)) && (j == (size - 1))) {
+						// DO NOTHING
+					} else {
+						out.newLine();
 					}
 				}
-			} catch (Exception e) {
-				e.printStackTrace();
 			}
 		}
 		return null;
@@ -97,33 +100,14 @@ public class ORISort extends Action {
 
 	@Override
 	protected void doFirst() {
-		try {
-			fw = new FileWriter(outputFile);
-			out = new BufferedWriter(fw);
-			isReadyToWrite = true;
-		} catch (IOException e) {
-			e.printStackTrace();
-		}
+		out = OutputSink.open(outputFile);
+		isReadyToWrite = out != null;
 	}
 
 
 	@Override
 	protected void doAtTheEnd() {
-		if (out != null) {
-			try {
-				out.close();
-			} catch (Exception e) {
-				e.printStackTrace();
-			}
-		}
-
-		if (fw != null) {
-			try {
-				fw.close();
-			} catch (Exception e) {
-				e.printStackTrace();
-			}
-		}
+		OutputSink.close(out);
 	}
 
 }
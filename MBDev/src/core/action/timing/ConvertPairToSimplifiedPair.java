@@ -22,13 +22,12 @@
  ******************************************************************************/
 package core.action.timing;
 
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
-import java.io.IOException;
 
 import core.action.file.LineFileReader;
+import core.action.file.OutputSink;
 import core.fileLine.PairLine;
+import core.fileLine.RecordFormatter;
 
 
 /**
@@ -43,10 +42,10 @@ public class ConvertPairToSimplifiedPair extends LineFileReader<PairLine> {
 	private static final boolean SKIP_RANDOM = true;
 
 	private final File outputFile;		// The output file.
+	private final RecordFormatter formatter;	// The formatter of the output lines.
 
 	private boolean isReadyToWrite;		// Says if the output file is ready.
-	private FileWriter fw;				// The file writer.
-	private BufferedWriter out;			// The buffered writer.
+	private OutputSink out;				// The output sink.
 
 
 	/**
@@ -59,6 +58,7 @@ public class ConvertPairToSimplifiedPair extends LineFileReader<PairLine> {
 		this.outputFile = outputFile;
 		isReadyToWrite = false;
 		actionName = "Convert pair file to simplified pair file.";
+		formatter = new RecordFormatter();
 	}
 
 
@@ -72,16 +72,11 @@ public class ConvertPairToSimplifiedPair extends LineFileReader<PairLine> {
 				}
 			}
 			if (isValid) {
-				String newLine;
 				if (getCurrentLineNumber() == 1) {
-					newLine = getSimplifiedPairFileHeader();
+					out.writeLine(getSimplifiedPairFileHeader());
 				} else {
-					newLine = getSimplifiedPairLine(line);
-				}
-				try {
-					out.write(newLine + "\n");
-				} catch (IOException e) {
-					e.printStackTrace();
+					formatSimplifiedPairLine(line);
+					out.writeLine(formatter);
 				}
 			}
 		}
@@ -92,58 +87,33 @@ public class ConvertPairToSimplifiedPair extends LineFileReader<PairLine> {
 	 * @return the header of a simplified pair file
 	 */
 	private String getSimplifiedPairFileHeader () {
-		String info = "";
-		info += "SEQ_ID\t";
-		info += "PROBE_ID\t";
-		info += "POSITION\t";
-		info += "PM";
-		return info;
+		return "SEQ_ID\t" + "PROBE_ID\t" + "POSITION\t" + "PM";
 	}
 
 
 	/**
+	 * Creates the simplified pair line in the formatter
 	 * @param line the original pair line
-	 * @return the simplified pair line
 	 */
-	private String getSimplifiedPairLine (PairLine line) {
-		String info = "";
-		info += line.getSeqID() + "\t";
-		info += line.getProbeID() + "\t";
-		info += line.getPosition() + "\t";
-		info += line.getPM();
-		return info;
+	private void formatSimplifiedPairLine (PairLine line) {
+		formatter.clear();
+		formatter.append(line.getColumn(2)).tab();
+		formatter.append(line.getColumn(3)).tab();
+		formatter.append(line.getPositionInt()).tab();
+		formatter.append(line.getPMDouble());
 	}
 
 
 	@Override
 	protected void doFirst() {
-		try {
-			fw = new FileWriter(outputFile);
-			out = new BufferedWriter(fw);
-			isReadyToWrite = true;
-		} catch (IOException e) {
-			e.printStackTrace();
-		}
+		out = OutputSink.open(outputFile);
+		isReadyToWrite = out != null;
 	}
 
 
 	@Override
 	protected void doAtTheEnd() {
-		if (out != null) {
-			try {
-				out.close();
-			} catch (Exception e) {
-				e.printStackTrace();
-			}
-		}
-
-		if (fw != null) {
-			try {
-				fw.close();
-			} catch (Exception e) {
-				e.printStackTrace();
-			}
-		}
+		OutputSink.close(out);
 	}
 
 }
@@ -23,15 +23,12 @@
 package core.action.timing;
 
 import java.io.File;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
 
 import core.action.file.LineFileReader;
 import core.fileLine.TimingDespratLine;
 import core.fileLine.TimingGilbertLine;
 import core.fileLine.TimingLine;
+import core.list.TimingIndex;
 
 
 /**
@@ -46,7 +43,7 @@ public class TimingListExtractor extends LineFileReader<Void> {
 	public static final int DESPRAT_FORMAT_INPUT = 0;		// Desprat input file format.
 	public static final int GILBERT_FORMAT_INPUT = 1;		// Gilbert input file format.
 
-	private final Map<String, List<TimingLine>> map;		// Map between chromosome names and their list of timing lines.
+	private final TimingIndex index;		// The timing values of the chromosomes.
 
 	private final TimingLine timingLine;	// Current timing line.
 	private final int inputFormat;			// Input file format.
@@ -59,7 +56,7 @@ public class TimingListExtractor extends LineFileReader<Void> {
 	 */
 	public TimingListExtractor(File file, int inputFormat) {
 		super(file, null);
-		map = new HashMap<>();
+		index = new TimingIndex();
 		this.inputFormat = inputFormat;
 		timingLine = getNewLine(null);
 		force = true;
@@ -70,20 +67,26 @@ public class TimingListExtractor extends LineFileReader<Void> {
 	@Override
 	protected void processCurrentLine() {
 		if (getCurrentLineNumber() > 3) {
+			String nativeLine = getNativeLine();
 			String chromosome = TimingLine.getChromosome(nativeLine);
 			if (chromosome != null) {
-				if (map.get(chromosome) == null) {
-					map.put(chromosome, new ArrayList<TimingLine>());
-				}
+				int chromosomeIndex = index.addChromosome(chromosome);
 
-				TimingLine timingLine = getNewLine(nativeLine);
+				timingLine.initialize(nativeLine);
 				if (timingLine.isValid()) {
-					map.get(chromosome).add(timingLine);
+					int position = timingLine.getPositionInt();
+					boolean isParseValid = timingLine.isParseValid();
+					double coeff = timingLine.getCoeffDouble();
+					isParseValid &= timingLine.isParseValid();
+					if (isParseValid) {
+						index.add(chromosomeIndex, position, coeff);
+					} else {
+						System.err.println("Could not process the line " + getCurrentLineNumber() +". The position or the timing is not a number.");
+					}
 				} else {
 					System.err.println("Could not process the line " + getCurrentLineNumber() +". The line does not seem to be valid.");
 				}
 			}
-			timingLine.initialize(nativeLine);
 		}
 	}
 
@@ -102,10 +105,10 @@ public class TimingListExtractor extends LineFileReader<Void> {
 
 
 	/**
-	 * @return the map between chromosome names and their list of timing lines
+	 * @return the timing values of the chromosomes
 	 */
-	public Map<String, List<TimingLine>> getMap() {
-		return map;
+	public TimingIndex getIndex() {
+		return index;
 	}
 
 
@@ -114,6 +117,8 @@ public class TimingListExtractor extends LineFileReader<Void> {
 
 
 	@Override
-	protected void doAtTheEnd() {}
+	protected void doAtTheEnd() {
+		index.build();
+	}
 
 }
@@ -0,0 +1,154 @@
+/*******************************************************************************
+ * Montpellier Biology Developpment
+ * This project aims to create a tool to process and analyse data of a project in the field of Biology.
+ * Copyright (C) 2012, Nicolas Fourel
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Authors:
+ * 	Nicolas Fourel <nicolas.fourel@live.fr>
+ * 	Romain Desprat <rdesprat@gmail.com>
+ ******************************************************************************/
+package core.counter;
+
+import java.util.Arrays;
+
+
+/**
+ * Accumulates the statistics of the number of ORI found for the HiC positions, in constant memory.
+ * For every number of ORI, it counts the events, the lines (an event on the same line as the previous one of that number is not a new line)
+ * and keeps the first lines as a sample.
+ * @author Nicolas Fourel
+ * @version 0.1
+ */
+public class ReportAccumulator {
+
+	/** The number of lines kept as a sample for every number of ORI */
+	public static final int SAMPLE_SIZE = 20;
+
+	private long[] events;		// The number of events, by number of ORI.
+	private long[] lines;		// The number of lines, by number of ORI.
+	private int[] lastLines;	// The last line, by number of ORI.
+	private int[][] samples;	// The first lines, by number of ORI.
+	private int[] sampleSizes;	// The number of lines in the samples, by number of ORI.
+
+
+	/**
+	 * Constructor of {@link ReportAccumulator}
+	 */
+	public ReportAccumulator () {
+		events = new long[0];
+		lines = new long[0];
+		lastLines = new int[0];
+		samples = new int[0][];
+		sampleSizes = new int[0];
+	}
+
+
+	/**
+	 * Makes sure a number of ORI can be counted
+	 * @param oriNumber a number of ORI
+	 */
+	private void ensureCapacity (int oriNumber) {
+		if (oriNumber >= events.length) {
+			int length = Math.max(oriNumber + 1, events.length * 2);
+			events = Arrays.copyOf(events, length);
+			lines = Arrays.copyOf(lines, length);
+			lastLines = Arrays.copyOf(lastLines, length);
+			samples = Arrays.copyOf(samples, length);
+			sampleSizes = Arrays.copyOf(sampleSizes, length);
+		}
+	}
+
+
+	/**
+	 * Counts an event
+	 * @param oriNumber		the number of ORI found
+	 * @param lineNumber	the number of the line of the event
+	 */
+	public void add (int oriNumber, int lineNumber) {
+		ensureCapacity(oriNumber);
+		if ((events[oriNumber] == 0) || (lastLines[oriNumber] != lineNumber)) {
+			addLine(oriNumber, lineNumber);
+		}
+		lastLines[oriNumber] = lineNumber;
+		events[oriNumber]++;
+	}
+
+
+	/**
+	 * Counts a new line
+	 * @param oriNumber		the number of ORI found
+	 * @param lineNumber	the number of the line
+	 */
+	private void addLine (int oriNumber, int lineNumber) {
+		lines[oriNumber]++;
+		if (samples[oriNumber] == null) {
+			samples[oriNumber] = new int[SAMPLE_SIZE];
+		}
+		if (sampleSizes[oriNumber] < SAMPLE_SIZE) {
+			samples[oriNumber][sampleSizes[oriNumber]] = lineNumber;
+			sampleSizes[oriNumber]++;
+		}
+	}
+
+
+	/**
+	 * @param oriNumber a number of ORI
+	 * @return the number of events with this number of ORI
+	 */
+	public long getEventNumber (int oriNumber) {
+		if (oriNumber < events.length) {
+			return events[oriNumber];
+		}
+		return 0;
+	}
+
+
+	/**
+	 * @param oriNumber a number of ORI
+	 * @return the number of lines with this number of ORI
+	 */
+	public long getLineNumber (int oriNumber) {
+		if (oriNumber < lines.length) {
+			return lines[oriNumber];
+		}
+		return 0;
+	}
+
+
+	/**
+	 * @return the report as a string
+	 */
+	public String getReport () {
+		StringBuilder info = new StringBuilder();
+		for (int oriNumber = 0; oriNumber < events.length; oriNumber++) {
+			if (events[oriNumber] > 0) {
+				if (oriNumber == 0) {
+					info.append(oriNumber + " ORI found " + events[oriNumber] + " times in " + lines[oriNumber] + " lines");
+				} else {
+					info.append(oriNumber + " ORI(s) found " + events[oriNumber] + " time(s) in " + lines[oriNumber] + " line(s):");
+					for (int i = 0; i < sampleSizes[oriNumber]; i++) {
+						info.append(samples[oriNumber][i]);
+						if (i < (sampleSizes[oriNumber] - 1)) {
+							info.append(",");
+						}
+					}
+				}
+				info.append("\n");
+			}
+		}
+		return info.toString();
+	}
+}
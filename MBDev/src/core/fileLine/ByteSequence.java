@@ -0,0 +1,132 @@
+/*******************************************************************************
+ * Montpellier Biology Developpment
+ * This project aims to create a tool to process and analyse data of a project in the field of Biology.
+ * Copyright (C) 2012, Nicolas Fourel
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Authors:
+ * 	Nicolas Fourel <nicolas.fourel@live.fr>
+ * 	Romain Desprat <rdesprat@gmail.com>
+ ******************************************************************************/
+package core.fileLine;
+
+import java.nio.charset.Charset;
+
+
+/**
+ * A {@link CharSequence} view on a range of a byte array, every byte being read as one character (ASCII content).
+ * The bytes are not copied: the view reflects the content of the array and becomes meaningless when the array is reused.
+ * @author Nicolas Fourel
+ * @version 0.1
+ */
+public final class ByteSequence implements CharSequence {
+
+	public static final Charset CHARSET = Charset.forName("UTF-8");	// The charset used when the view is converted to a string.
+
+	private byte[] data;	// The byte array.
+	private int start;		// The index of the first byte of the view.
+	private int stop;		// The index right after the last byte of the view.
+
+
+	/**
+	 * Constructor of {@link ByteSequence}
+	 */
+	public ByteSequence () {
+		this(null, 0, 0);
+	}
+
+
+	/**
+	 * Constructor of {@link ByteSequence}
+	 * @param data	the byte array
+	 * @param start	the index of the first byte of the view
+	 * @param stop	the index right after the last byte of the view
+	 */
+	public ByteSequence (byte[] data, int start, int stop) {
+		set(data, start, stop);
+	}
+
+
+	/**
+	 * Moves the view on a new range
+	 * @param data	the byte array
+	 * @param start	the index of the first byte of the view
+	 * @param stop	the index right after the last byte of the view
+	 */
+	public void set (byte[] data, int start, int stop) {
+		this.data = data;
+		this.start = start;
+		this.stop = stop;
+	}
+
+
+	/**
+	 * @return the byte array
+	 */
+	public byte[] getData () {
+		return data;
+	}
+
+
+	/**
+	 * @return the index of the first byte of the view
+	 */
+	public int getStart () {
+		return start;
+	}
+
+
+	@Override
+	public int length() {
+		return stop - start;
+	}
+
+
+	@Override
+	public char charAt(int index) {
+		return (char) (data[start + index] & 0xFF);
+	}
+
+
+	@Override
+	public CharSequence subSequence(int start, int end) {
+		return new ByteSequence(data, this.start + start, this.start + end);
+	}
+
+
+	/**
+	 * @param sequence a sequence of characters
+	 * @return true if the view contains the same characters as the sequence, false otherwise
+	 */
+	public boolean contentEquals (CharSequence sequence) {
+		int length = length();
+		if ((sequence == null) || (sequence.length() != length)) {
+			return false;
+		}
+		for (int i = 0; i < length; i++) {
+			if (charAt(i) != sequence.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+
+	@Override
+	public String toString() {
+		return new String(data, start, stop - start, CHARSET);
+	}
+
+}
@@ -47,7 +47,7 @@ public class HicLine extends Line {
 	 * @return the name
 	 */
 	public String getName () {
-		return elements[0];
+		return getElement(0);
 	}
 
 
@@ -55,7 +55,7 @@ public class HicLine extends Line {
 	 * @return the first chromosome name
 	 */
 	public String getFirstChromosome () {
-		return elements[1];
+		return getElement(1);
 	}
 
 
@@ -63,7 +63,15 @@ public class HicLine extends Line {
 	 * @return the first position
 	 */
 	public Integer getFirstPosition () {
-		return Utils.getIntegerFromString(elements[2]);
+		return Utils.getIntegerFromString(getElement(2));
+	}
+
+
+	/**
+	 * @return the first position as an int ({@link LineTokenizer#INVALID_INT} if not valid)
+	 */
+	public int getFirstPositionInt () {
+		return getIntElement(2);
 	}
 
 
@@ -71,7 +79,7 @@ public class HicLine extends Line {
 	 * @return the first strand
 	 */
 	public String getFirstStrand () {
-		return elements[3];
+		return getElement(3);
 	}
 
 
@@ -79,7 +87,7 @@ public class HicLine extends Line {
 	 * @return the second chromosome name
 	 */
 	public String getSecondChromosome () {
-		return elements[4];
+		return getElement(4);
 	}
 
 
@@ -87,7 +95,15 @@ public class HicLine extends Line {
 	 * @return the second position
 	 */
 	public Integer getSecondPosition () {
-		return Utils.getIntegerFromString(elements[5]);
+		return Utils.getIntegerFromString(getElement(5));
+	}
+
+
+	/**
+	 * @return the second position as an int ({@link LineTokenizer#INVALID_INT} if not valid)
+	 */
+	public int getSecondPositionInt () {
+		return getIntElement(5);
 	}
 
 
@@ -95,7 +111,18 @@ public class HicLine extends Line {
 	 * @return the second strand
 	 */
 	public String getSecondStrand () {
-		return elements[6];
+		return getElement(6);
+	}
+
+
+	/**
+	 * @return true if both positions are on the same chromosome, false otherwise (no string is created)
+	 */
+	public boolean isIntraChromosome () {
+		if (isTokenized) {
+			return tokenizer.columnEquals(1, 4);
+		}
+		return getFirstChromosome().equals(getSecondChromosome());
 	}
 
 }
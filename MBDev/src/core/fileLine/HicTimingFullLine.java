@@ -46,20 +46,10 @@ public class HicTimingFullLine extends Line {
 
 
 	/**
-	 * @return the line as it appears in the file
+	 * @return the line as it appears in the file, without its name
 	 */
 	public String getLineNoName() {
-		String line = null;
-		if (isValid) {
-			line = "";
-			for (int i = 1; i < elements.length; i++) {
-				line += elements[i];
-				if (i < (elements.length - 1)) {
-					line += "\t";
-				}
-			}
-		}
-		return line;
+		return getLine(1);
 	}
 
 
@@ -67,7 +57,7 @@ public class HicTimingFullLine extends Line {
 	 * @return the name
 	 */
 	public String getName() {
-		return elements[0];
+		return getElement(0);
 	}
 
 
@@ -75,7 +65,7 @@ public class HicTimingFullLine extends Line {
 	 * @return the first chromosome name
 	 */
 	public String getFirstChromosome() {
-		return elements[1];
+		return getElement(1);
 	}
 
 
@@ -83,7 +73,15 @@ public class HicTimingFullLine extends Line {
 	 * @return the first position
 	 */
 	public Integer getFirstPosition() {
-		return Utils.getIntegerFromString(elements[2]);
+		return Utils.getIntegerFromString(getElement(2));
+	}
+
+
+	/**
+	 * @return the first position as an int ({@link LineTokenizer#INVALID_INT} if not valid)
+	 */
+	public int getFirstPositionInt() {
+		return getIntElement(2);
 	}
 
 
@@ -91,7 +89,7 @@ public class HicTimingFullLine extends Line {
 	 * @return the first strand
 	 */
 	public String getFirstStrand() {
-		return elements[3];
+		return getElement(3);
 	}
 
 
@@ -99,7 +97,15 @@ public class HicTimingFullLine extends Line {
 	 * @return the first timing
 	 */
 	public String getFirstTiming() {
-		return elements[4];
+		return getElement(4);
+	}
+
+
+	/**
+	 * @return the first timing as a double ({@link LineTokenizer#INVALID_DOUBLE} if not valid)
+	 */
+	public double getFirstTimingDouble() {
+		return getDoubleElement(4);
 	}
 
 
@@ -107,7 +113,7 @@ public class HicTimingFullLine extends Line {
 	 * @return the second chromosome name
 	 */
 	public String getSecondChromosome() {
-		return elements[5];
+		return getElement(5);
 	}
 
 
@@ -115,7 +121,15 @@ public class HicTimingFullLine extends Line {
 	 * @return the second position
 	 */
 	public Integer getSecondPosition() {
-		return Utils.getIntegerFromString(elements[6]);
+		return Utils.getIntegerFromString(getElement(6));
+	}
+
+
+	/**
+	 * @return the second position as an int ({@link LineTokenizer#INVALID_INT} if not valid)
+	 */
+	public int getSecondPositionInt() {
+		return getIntElement(6);
 	}
 
 
@@ -123,7 +137,7 @@ public class HicTimingFullLine extends Line {
 	 * @return the second strand
 	 */
 	public String getSecondStrand() {
-		return elements[7];
+		return getElement(7);
 	}
 
 
@@ -131,7 +145,15 @@ public class HicTimingFullLine extends Line {
 	 * @return the second timing
 	 */
 	public String getSecondTiming() {
-		return elements[8];
+		return getElement(8);
+	}
+
+
+	/**
+	 * @return the second timing as a double ({@link LineTokenizer#INVALID_DOUBLE} if not valid)
+	 */
+	public double getSecondTimingDouble() {
+		return getDoubleElement(8);
 	}
 
 }
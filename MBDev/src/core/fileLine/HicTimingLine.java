@@ -34,6 +34,8 @@ public class HicTimingLine extends Line {
 
 	public static final String EXTENSION = "txt";
 
+	private static final int FULL_LINE_COLUMN_NUMBER = 9;	// The number of columns of a full HiC/timing line (see {@link HicTimingFullLine}).
+
 
 	/**
 	 * Constructor of {@link HicTimingLine}
@@ -58,19 +60,21 @@ public class HicTimingLine extends Line {
 	 */
 	public void initializeFromFullHiCTimingLine (String line) {
 		if (line == null) {							// if null
-			elements = null;						// there is no element and it is the last line
-		} else if (line.isEmpty()) {				// if empty: bad reading behavior
-			elements = new String[0];				// we filter setting the elements as "empty" in order to be skipped in the process
-		} else {									// the line matches the requirements
-			String[] subElements = Utils.splitWithTab(line);	// we split with tabulations
-			initializeFromArray(subElements);
+			clear();								// there is no element and it is the last line
+		} else {									// we split with tabulations
+			tokenizer.tokenize(line);
+			boolean isFullLine = tokenizer.getColumnNumber() == FULL_LINE_COLUMN_NUMBER;
+			tokenizer.removeColumn(7);				// we remove the strands and the ID
+			tokenizer.removeColumn(3);
+			tokenizer.removeColumn(0);
+			initializeFromTokenizer();
+			isValid = isFullLine;
 		}
-
-		finalizeInitialization();
 	}
 
 
 	public void initializeFromArray (String[] subElements) {
+		isTokenized = false;
 		if (subElements == null) {
 			elements = null;
 		} else {
@@ -101,7 +105,7 @@ public class HicTimingLine extends Line {
 	 * @return the first chromosome name
 	 */
 	public String getFirstChromosome () {
-		return elements[0];
+		return getElement(0);
 	}
 
 
@@ -109,7 +113,15 @@ public class HicTimingLine extends Line {
 	 * @return the first position
 	 */
 	public Integer getFirstPosition () {
-		return Utils.getIntegerFromString(elements[1]);
+		return Utils.getIntegerFromString(getElement(1));
+	}
+
+
+	/**
+	 * @return the first position as an int ({@link LineTokenizer#INVALID_INT} if not valid)
+	 */
+	public int getFirstPositionInt () {
+		return getIntElement(1);
 	}
 
 
@@ -117,7 +129,15 @@ public class HicTimingLine extends Line {
 	 * @return the first timing
 	 */
 	public String getFirstTiming () {
-		return elements[2];
+		return getElement(2);
+	}
+
+
+	/**
+	 * @return the first timing as a double ({@link LineTokenizer#INVALID_DOUBLE} if not valid)
+	 */
+	public double getFirstTimingDouble () {
+		return getDoubleElement(2);
 	}
 
 
@@ -125,7 +145,7 @@ public class HicTimingLine extends Line {
 	 * @return the second chromosome name
 	 */
 	public String getSecondChromosome () {
-		return elements[3];
+		return getElement(3);
 	}
 
 
@@ -133,7 +153,15 @@ public class HicTimingLine extends Line {
 	 * @return the second position
 	 */
 	public Integer getSecondPosition () {
-		return Utils.getIntegerFromString(elements[4]);
+		return Utils.getIntegerFromString(getElement(4));
+	}
+
+
+	/**
+	 * @return the second position as an int ({@link LineTokenizer#INVALID_INT} if not valid)
+	 */
+	public int getSecondPositionInt () {
+		return getIntElement(4);
 	}
 
 
@@ -141,7 +169,15 @@ public class HicTimingLine extends Line {
 	 * @return the second timing
 	 */
 	public String getSecondTiming () {
-		return elements[5];
+		return getElement(5);
+	}
+
+
+	/**
+	 * @return the second timing as a double ({@link LineTokenizer#INVALID_DOUBLE} if not valid)
+	 */
+	public double getSecondTimingDouble () {
+		return getDoubleElement(5);
 	}
 
 
@@ -22,6 +22,8 @@
  ******************************************************************************/
 package core.fileLine;
 
+import java.util.Arrays;
+
 import core.util.Utils;
 
 
@@ -31,9 +33,14 @@ import core.util.Utils;
  */
 public abstract class Line {
 
-	protected final int columnNumber;	// The number of column of the line.
-	protected boolean isValid;			// Says if the line is valid or not.
-	protected String[] elements;		// The content of the line organized in an array.
+	protected final int columnNumber;			// The number of column of the line.
+	protected final LineTokenizer tokenizer;	// The tokenizer holding the column offsets of the line.
+	protected boolean isValid;					// Says if the line is valid or not.
+	protected boolean isTokenized;				// Says if the content of the line comes from the tokenizer (true) or from the elements array (false).
+	protected String[] elements;				// The content of the line organized in an array (created on demand for a tokenized line).
+	private String[] columnCache;				// The columns of the tokenized line already converted to strings.
+	private RecordFormatter formatter;			// The formatter used to rebuild the line (created on demand).
+	private boolean isParseValid;				// Says if the last conversion of an element of the array to a number succeeded.
 
 
 	/**
@@ -42,6 +49,8 @@ public abstract class Line {
 	 */
 	public Line (int columnNumber, String line) {
 		this.columnNumber = columnNumber;
+		this.tokenizer = new LineTokenizer();
+		this.columnCache = new String[columnNumber];
 		initialize(line);
 	}
 
@@ -52,18 +61,57 @@ public abstract class Line {
 	 */
 	public void initialize (String line) {
 		if (line == null) {							// if null
-			elements = null;						// there is no element and it is the last line
-		} else if (line.isEmpty()) {				// if empty: bad reading behavior
-			elements = new String[0];				// we filter setting the elements as "empty" in order to be skipped in the process
-		} else {									// the line matches the requirements
-			elements = Utils.splitWithTab(line);	// we split with tabulations
+			clear();								// there is no element and it is the last line
+		} else {									// we split with tabulations (an empty line has no column and will be skipped in the process)
+			tokenizer.tokenize(line);
+			initializeFromTokenizer();
 		}
+	}
 
-		if ((elements != null) && (elements.length == columnNumber)) {
-			isValid = true;
-		} else {
-			isValid = false;
-		}
+
+	/**
+	 * Initialize the object with a line contained in a byte array (the array is not copied)
+	 * @param data	the array containing the line
+	 * @param start	the index of the first byte of the line
+	 * @param stop	the index right after the last byte of the line (line terminators excluded)
+	 */
+	public void initialize (byte[] data, int start, int stop) {
+		tokenizer.tokenize(data, start, stop);
+		initializeFromTokenizer();
+	}
+
+
+	/**
+	 * Initialize the object with a line of a {@link LineBatch} (the data of the batch is not copied)
+	 * @param batch	a batch of lines
+	 * @param index	index of the line in the batch
+	 */
+	public void initialize (LineBatch batch, int index) {
+		tokenizer.tokenize(batch, index);
+		initializeFromTokenizer();
+	}
+
+
+	/**
+	 * Removes the content of the line
+	 */
+	protected void clear () {
+		tokenizer.clear();
+		isTokenized = false;
+		elements = null;
+		isValid = false;
+	}
+
+
+	/**
+	 * Finalizes the initialization once the tokenizer has split the line.
+	 * Subclasses can override this method to rearrange the columns before the validation.
+	 */
+	protected void initializeFromTokenizer () {
+		isTokenized = true;
+		elements = null;
+		Arrays.fill(columnCache, null);
+		isValid = tokenizer.getColumnNumber() == columnNumber;
 	}
 
 
@@ -75,28 +123,178 @@ public abstract class Line {
 	}
 
 
+	/**
+	 * @return the number of columns of a valid line
+	 */
+	public int getColumnNumber () {
+		return columnNumber;
+	}
+
+
+	/**
+	 * @return the number of columns of the current line
+	 */
+	public int getElementNumber () {
+		if (isTokenized) {
+			return tokenizer.getColumnNumber();
+		}
+		if (elements == null) {
+			return 0;
+		}
+		return elements.length;
+	}
+
+
+	/**
+	 * @param index index of a column
+	 * @return the column as a string
+	 */
+	protected String getElement (int index) {
+		if (!isTokenized) {
+			return elements[index];
+		}
+		if (index < columnCache.length) {
+			String element = columnCache[index];
+			if (element == null) {
+				element = tokenizer.getString(index);
+				columnCache[index] = element;
+			}
+			return element;
+		}
+		return tokenizer.getString(index);
+	}
+
+
+	/**
+	 * @param index index of a column
+	 * @return the column as an int, {@link LineTokenizer#INVALID_INT} if it cannot be converted
+	 */
+	protected int getIntElement (int index) {
+		if (isTokenized) {
+			return tokenizer.getInt(index);
+		}
+		Integer value = Utils.getIntegerFromString(elements[index]);
+		isParseValid = value != null;
+		return isParseValid ? value : LineTokenizer.INVALID_INT;
+	}
+
+
+	/**
+	 * @param index index of a column
+	 * @return the column as a double, {@link LineTokenizer#INVALID_DOUBLE} if it cannot be converted
+	 */
+	protected double getDoubleElement (int index) {
+		if (isTokenized) {
+			return tokenizer.getDouble(index);
+		}
+		Double value = Utils.getDoubleFromString(elements[index]);
+		isParseValid = value != null;
+		return isParseValid ? value : LineTokenizer.INVALID_DOUBLE;
+	}
+
+
+	/**
+	 * @return true if the last primitive getter could convert its column, false otherwise
+	 */
+	public boolean isParseValid () {
+		if (isTokenized) {
+			return tokenizer.isParseValid();
+		}
+		return isParseValid;
+	}
+
+
+	/**
+	 * The view is only valid until the next initialization of the line.
+	 * @param index index of a column
+	 * @return the column as a {@link CharSequence}, no string is created for a tokenized line
+	 */
+	public CharSequence getColumn (int index) {
+		if (isTokenized) {
+			return tokenizer.getColumn(index);
+		}
+		return elements[index];
+	}
+
+
+	/**
+	 * @param index		index of a column
+	 * @param sequence	a sequence of ASCII characters
+	 * @return true if the column has the same content as the sequence, no string is created for a tokenized line
+	 */
+	public boolean columnEquals (int index, CharSequence sequence) {
+		if (isTokenized) {
+			return tokenizer.columnEquals(index, sequence);
+		}
+		return (sequence != null) && elements[index].contentEquals(sequence);
+	}
+
+
 	/**
 	 * @return the line as it appears in the file
 	 */
 	public String getLine () {
+		return getLine(0);
+	}
+
+
+	/**
+	 * @param firstColumn index of the first column to keep
+	 * @return the tab-delimited columns of the line from the given one, null if the line is not valid
+	 */
+	protected String getLine (int firstColumn) {
 		String line = null;
 		if (isValid) {
-			line = "";
-			for (int i = 0; i < elements.length; i++) {
-				line += elements[i];
-				if (i < (elements.length - 1)) {
-					line += "\t";
-				}
+			if (formatter == null) {
+				formatter = new RecordFormatter();
 			}
+			appendColumns(formatter.clear(), firstColumn);
+			line = formatter.toString();
 		}
 		return line;
 	}
 
 
+	/**
+	 * Appends the tab-delimited columns of the line to a formatter
+	 * @param formatter the formatter
+	 */
+	public void appendLine (RecordFormatter formatter) {
+		appendColumns(formatter, 0);
+	}
+
+
+	/**
+	 * Appends the tab-delimited columns of the line to a formatter, from a column to the last one
+	 * @param formatter		the formatter
+	 * @param firstColumn	index of the first column to append
+	 */
+	private void appendColumns (RecordFormatter formatter, int firstColumn) {
+		int elementNumber = getElementNumber();
+		for (int i = firstColumn; i < elementNumber; i++) {
+			if (i > firstColumn) {
+				formatter.tab();
+			}
+			if (isTokenized) {
+				tokenizer.appendColumn(i, formatter);
+			} else {
+				formatter.append(elements[i]);
+			}
+		}
+	}
+
+
 	/**
 	 * @return the elements
 	 */
 	public String[] getElements() {
+		if (isTokenized && (elements == null)) {
+			int elementNumber = tokenizer.getColumnNumber();
+			elements = new String[elementNumber];
+			for (int i = 0; i < elementNumber; i++) {
+				elements[i] = getElement(i);
+			}
+		}
 		return elements;
 	}
 
@@ -107,14 +305,14 @@ public abstract class Line {
 	 * @return the formatted line
 	 */
 	public static String formatLine (Object[] object) {
-		String s = "";
+		StringBuilder builder = new StringBuilder();
 		for (int i = 0; i < object.length; i++) {
-			s += object[i];
+			builder.append(object[i]);
 			if (i < (object.length - 1)) {
-				s += "\t";
+				builder.append('\t');
 			}
 		}
-		return s;
+		return builder.toString();
 	}
 
 }
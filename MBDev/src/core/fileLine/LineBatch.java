@@ -0,0 +1,278 @@
+/*******************************************************************************
+ * Montpellier Biology Developpment
+ * This project aims to create a tool to process and analyse data of a project in the field of Biology.
+ * Copyright (C) 2012, Nicolas Fourel
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Authors:
+ * 	Nicolas Fourel <nicolas.fourel@live.fr>
+ * 	Romain Desprat <rdesprat@gmail.com>
+ ******************************************************************************/
+package core.fileLine;
+
+import java.util.Arrays;
+
+
+/**
+ * A {@link LineBatch} is a block of consecutive lines of a file, already split in columns.
+ * The batch owns its byte array: lines and columns are only described by their offsets in this array.
+ * @author Nicolas Fourel
+ * @version 0.1
+ */
+public class LineBatch {
+
+	private static final int AVERAGE_LINE_LENGTH = 64;	// Expected length of a line, used to size the offset arrays.
+
+	private final byte[] data;			// The array containing the lines.
+	private int firstLineNumber;		// The number of the first line of the batch in the file (starting at 1).
+	private int size;					// The number of lines of the batch.
+	private int[] lineStarts;			// The index of the first byte of every line.
+	private int[] lineStops;			// The index right after the last byte of every line (line terminators excluded).
+	private int[] columnIndexes;		// The index of the first column of every line in the column arrays.
+	private int[] columnStarts;			// The index of the first byte of every column.
+	private int[] columnStops;			// The index right after the last byte of every column.
+	private int columnNumber;			// The total number of columns of the batch.
+
+
+	/**
+	 * Constructor of {@link LineBatch}.
+	 * Splits a region of a byte array in lines and columns. As with {@link java.io.BufferedReader#readLine()}, a line ends with a line feed, a carriage return or both.
+	 * @param data	the array containing the lines
+	 * @param start	the index of the first byte of the first line
+	 * @param stop	the index right after the last byte of the region
+	 */
+	public LineBatch (byte[] data, int start, int stop) {
+		this.data = data;
+		this.firstLineNumber = 1;
+		int lineCapacity = Math.max(16, (stop - start) / AVERAGE_LINE_LENGTH);
+		lineStarts = new int[lineCapacity];
+		lineStops = new int[lineCapacity];
+		columnIndexes = new int[lineCapacity + 1];
+		columnStarts = new int[lineCapacity * 4];
+		columnStops = new int[lineCapacity * 4];
+		split(start, stop);
+	}
+
+
+	/**
+	 * Splits the region in lines and columns
+	 * @param start	the index of the first byte of the first line
+	 * @param stop	the index right after the last byte of the region
+	 */
+	private void split (int start, int stop) {
+		int lineStart = start;
+		int columnStart = start;
+		for (int i = start; i < stop; i++) {
+			byte current = data[i];
+			if (current == '\t') {
+				addColumn(columnStart, i);
+				columnStart = i + 1;
+			} else if ((current == '\n') || (current == '\r')) {
+				addLine(lineStart, columnStart, i);
+				if ((current == '\r') && ((i + 1) < stop) && (data[i + 1] == '\n')) {
+					i++;
+				}
+				lineStart = i + 1;
+				columnStart = i + 1;
+			}
+		}
+		if (lineStart < stop) {		// the last line of the file may not end with a line terminator
+			addLine(lineStart, columnStart, stop);
+		}
+		columnIndexes[size] = columnNumber;
+	}
+
+
+	/**
+	 * Adds a line to the batch, an empty line has no column.
+	 * @param lineStart		the index of the first byte of the line
+	 * @param columnStart	the index of the first byte of the last column of the line
+	 * @param lineStop		the index right after the last byte of the line
+	 */
+	private void addLine (int lineStart, int columnStart, int lineStop) {
+		if (lineStart < lineStop) {
+			addColumn(Math.min(columnStart, lineStop), lineStop);
+		}
+		if ((size + 1) >= columnIndexes.length) {
+			int newLength = lineStarts.length * 2;
+			lineStarts = Arrays.copyOf(lineStarts, newLength);
+			lineStops = Arrays.copyOf(lineStops, newLength);
+			columnIndexes = Arrays.copyOf(columnIndexes, newLength + 1);
+		}
+		lineStarts[size] = lineStart;
+		lineStops[size] = lineStop;
+		size++;
+		columnIndexes[size] = columnNumber;
+	}
+
+
+	/**
+	 * Adds a column to the current line
+	 * @param start	the index of the first byte of the column
+	 * @param stop	the index right after the last byte of the column
+	 */
+	private void addColumn (int start, int stop) {
+		if (columnNumber == columnStarts.length) {
+			int newLength = columnStarts.length * 2;
+			columnStarts = Arrays.copyOf(columnStarts, newLength);
+			columnStops = Arrays.copyOf(columnStops, newLength);
+		}
+		columnStarts[columnNumber] = start;
+		columnStops[columnNumber] = stop;
+		columnNumber++;
+	}
+
+
+	/**
+	 * Keeps only the first lines of the batch
+	 * @param size the number of lines to keep
+	 */
+	public void truncate (int size) {
+		if ((size >= 0) && (size < this.size)) {
+			this.size = size;
+		}
+	}
+
+
+	/**
+	 * @return the array containing the lines
+	 */
+	public byte[] getData () {
+		return data;
+	}
+
+
+	/**
+	 * @return the number of lines of the batch
+	 */
+	public int getSize () {
+		return size;
+	}
+
+
+	/**
+	 * @param firstLineNumber the number of the first line of the batch in the file (starting at 1)
+	 */
+	public void setFirstLineNumber (int firstLineNumber) {
+		this.firstLineNumber = firstLineNumber;
+	}
+
+
+	/**
+	 * @param index index of a line in the batch
+	 * @return the number of the line in the file (starting at 1)
+	 */
+	public int getLineNumber (int index) {
+		return firstLineNumber + index;
+	}
+
+
+	/**
+	 * @return the number of the last line of the batch in the file
+	 */
+	public int getLastLineNumber () {
+		return (firstLineNumber + size) - 1;
+	}
+
+
+	/**
+	 * @param index index of a line in the batch
+	 * @return the index of the first byte of the line in the data array
+	 */
+	public int getLineStart (int index) {
+		return lineStarts[index];
+	}
+
+
+	/**
+	 * @param index index of a line in the batch
+	 * @return the index right after the last byte of the line in the data array (line terminators excluded)
+	 */
+	public int getLineStop (int index) {
+		return lineStops[index];
+	}
+
+
+	/**
+	 * @param index index of a line in the batch
+	 * @return the line as a new string
+	 */
+	public String getLine (int index) {
+		return new String(data, lineStarts[index], lineStops[index] - lineStarts[index], ByteSequence.CHARSET);
+	}
+
+
+	/**
+	 * @param index index of a line in the batch
+	 * @return the number of columns of the line
+	 */
+	public int getColumnNumber (int index) {
+		return columnIndexes[index + 1] - columnIndexes[index];
+	}
+
+
+	/**
+	 * @param index			index of a line in the batch
+	 * @param columnIndex	index of a column in the line
+	 * @return the index of the first byte of the column in the data array
+	 */
+	public int getColumnStart (int index, int columnIndex) {
+		return columnStarts[columnIndexes[index] + columnIndex];
+	}
+
+
+	/**
+	 * @param index			index of a line in the batch
+	 * @param columnIndex	index of a column in the line
+	 * @return the index right after the last byte of the column in the data array
+	 */
+	public int getColumnStop (int index, int columnIndex) {
+		return columnStops[columnIndexes[index] + columnIndex];
+	}
+
+
+	/**
+	 * @param index			index of a line in the batch
+	 * @param columnIndex	index of a column in the line
+	 * @return the column as a new string
+	 */
+	public String getString (int index, int columnIndex) {
+		int start = getColumnStart(index, columnIndex);
+		return new String(data, start, getColumnStop(index, columnIndex) - start, ByteSequence.CHARSET);
+	}
+
+
+	/**
+	 * @param index			index of a line in the batch
+	 * @param firstColumn	index of a column in the line
+	 * @param secondColumn	index of another column in the line
+	 * @return true if both columns have the same content, false otherwise
+	 */
+	public boolean columnEquals (int index, int firstColumn, int secondColumn) {
+		int firstStart = getColumnStart(index, firstColumn);
+		int secondStart = getColumnStart(index, secondColumn);
+		int length = getColumnStop(index, firstColumn) - firstStart;
+		if (length != (getColumnStop(index, secondColumn) - secondStart)) {
+			return false;
+		}
+		for (int i = 0; i < length; i++) {
+			if (data[firstStart + i] != data[secondStart + i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+}
@@ -0,0 +1,433 @@
+/*******************************************************************************
+ * Montpellier Biology Developpment
+ * This project aims to create a tool to process and analyse data of a project in the field of Biology.
+ * Copyright (C) 2012, Nicolas Fourel
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Authors:
+ * 	Nicolas Fourel <nicolas.fourel@live.fr>
+ * 	Romain Desprat <rdesprat@gmail.com>
+ ******************************************************************************/
+package core.fileLine;
+
+import java.util.Arrays;
+
+
+/**
+ * The {@link LineTokenizer} splits a tab-delimited line without creating any string.
+ * It only records the offsets of the columns in a byte array, the array being either given or a buffer reused from one line to another.
+ * Columns can then be read as {@link CharSequence} views or converted to strings on demand.
+ * @author Nicolas Fourel
+ * @version 0.1
+ */
+public class LineTokenizer {
+
+	public static final int INVALID_INT = Integer.MIN_VALUE;		// Value returned when a column cannot be converted to an int.
+	public static final double INVALID_DOUBLE = Double.NaN;		// Value returned when a column cannot be converted to a double.
+
+	private static final int DEFAULT_COLUMN_NUMBER = 16;	// Initial capacity of the offset arrays.
+	private static final int DEFAULT_BUFFER_LENGTH = 256;	// Initial length of the internal buffer.
+	private static final int MAX_FAST_DIGITS = 15;			// Maximum number of significant digits of a double parsed without the JDK.
+	private static final double[] POWERS_OF_TEN = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+		1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};	// Powers of ten exactly represented as doubles.
+
+	private byte[] buffer;				// The internal buffer used for lines given as strings.
+	private byte[] data;				// The array containing the current line.
+	private int[] columnStarts;			// The index of the first byte of every column.
+	private int[] columnStops;			// The index right after the last byte of every column.
+	private int columnNumber;			// The number of columns of the current line.
+	private ByteSequence[] views;		// The reusable views on the columns.
+	private boolean isParseValid;		// Says if the last conversion of a column to a number succeeded.
+
+
+	/**
+	 * Constructor of {@link LineTokenizer}
+	 */
+	public LineTokenizer () {
+		buffer = new byte[DEFAULT_BUFFER_LENGTH];
+		columnStarts = new int[DEFAULT_COLUMN_NUMBER];
+		columnStops = new int[DEFAULT_COLUMN_NUMBER];
+		views = new ByteSequence[DEFAULT_COLUMN_NUMBER];
+		clear();
+	}
+
+
+	/**
+	 * Removes the current line
+	 */
+	public void clear () {
+		data = null;
+		columnNumber = 0;
+	}
+
+
+	/**
+	 * Copies a line in the internal buffer and splits it
+	 * @param line a line from a file
+	 */
+	public void tokenize (String line) {
+		int length = line.length();
+		if (buffer.length < length) {
+			buffer = new byte[Math.max(length, buffer.length * 2)];
+		}
+
+		boolean isAscii = true;
+		for (int i = 0; (i < length) && isAscii; i++) {
+			char c = line.charAt(i);
+			if (c < 128) {
+				buffer[i] = (byte) c;
+			} else {
+				isAscii = false;
+			}
+		}
+
+		if (isAscii) {
+			tokenize(buffer, 0, length);
+		} else {
+			byte[] encoded = line.getBytes(ByteSequence.CHARSET);
+			if (buffer.length < encoded.length) {
+				buffer = new byte[encoded.length];
+			}
+			System.arraycopy(encoded, 0, buffer, 0, encoded.length);
+			tokenize(buffer, 0, encoded.length);
+		}
+	}
+
+
+	/**
+	 * Splits a line contained in a byte array, the array is not copied.
+	 * An empty line has no column.
+	 * @param data	the array containing the line
+	 * @param start	the index of the first byte of the line
+	 * @param stop	the index right after the last byte of the line (line terminators excluded)
+	 */
+	public void tokenize (byte[] data, int start, int stop) {
+		this.data = data;
+		columnNumber = 0;
+		if (start < stop) {
+			int columnStart = start;
+			for (int i = start; i < stop; i++) {
+				if (data[i] == '\t') {
+					addColumn(columnStart, i);
+					columnStart = i + 1;
+				}
+			}
+			addColumn(columnStart, stop);
+		}
+	}
+
+
+	/**
+	 * Loads a line of a {@link LineBatch}, the batch has already split it so only the offsets are copied.
+	 * @param batch	a batch of lines
+	 * @param index	index of the line in the batch
+	 */
+	public void tokenize (LineBatch batch, int index) {
+		data = batch.getData();
+		columnNumber = 0;
+		int number = batch.getColumnNumber(index);
+		for (int i = 0; i < number; i++) {
+			addColumn(batch.getColumnStart(index, i), batch.getColumnStop(index, i));
+		}
+	}
+
+
+	/**
+	 * Adds a column to the current line
+	 * @param start	the index of the first byte of the column
+	 * @param stop	the index right after the last byte of the column
+	 */
+	private void addColumn (int start, int stop) {
+		if (columnNumber == columnStarts.length) {
+			int newLength = columnStarts.length * 2;
+			columnStarts = Arrays.copyOf(columnStarts, newLength);
+			columnStops = Arrays.copyOf(columnStops, newLength);
+			views = Arrays.copyOf(views, newLength);
+		}
+		columnStarts[columnNumber] = start;
+		columnStops[columnNumber] = stop;
+		columnNumber++;
+	}
+
+
+	/**
+	 * Removes a column from the current line, the following columns are shifted to the left
+	 * @param index index of the column to remove
+	 */
+	public void removeColumn (int index) {
+		if ((index >= 0) && (index < columnNumber)) {
+			int moved = columnNumber - index - 1;
+			System.arraycopy(columnStarts, index + 1, columnStarts, index, moved);
+			System.arraycopy(columnStops, index + 1, columnStops, index, moved);
+			columnNumber--;
+		}
+	}
+
+
+	/**
+	 * Skips the first characters of a column
+	 * @param index		index of the column
+	 * @param offset	number of characters to skip
+	 */
+	public void skipColumnStart (int index, int offset) {
+		columnStarts[index] = Math.min(columnStarts[index] + offset, columnStops[index]);
+	}
+
+
+	/**
+	 * @return the array containing the current line (null if there is no line)
+	 */
+	public byte[] getData () {
+		return data;
+	}
+
+
+	/**
+	 * @return the number of columns of the current line
+	 */
+	public int getColumnNumber () {
+		return columnNumber;
+	}
+
+
+	/**
+	 * @param index index of a column
+	 * @return the index of the first byte of the column in the data array
+	 */
+	public int getColumnStart (int index) {
+		return columnStarts[index];
+	}
+
+
+	/**
+	 * @param index index of a column
+	 * @return the index right after the last byte of the column in the data array
+	 */
+	public int getColumnStop (int index) {
+		return columnStops[index];
+	}
+
+
+	/**
+	 * @param index index of a column
+	 * @return the number of bytes of the column
+	 */
+	public int getColumnLength (int index) {
+		return columnStops[index] - columnStarts[index];
+	}
+
+
+	/**
+	 * The view is reused for the same column index: it is only valid until the next line is tokenized.
+	 * @param index index of a column
+	 * @return a view on the column
+	 */
+	public CharSequence getColumn (int index) {
+		ByteSequence view = views[index];
+		if (view == null) {
+			view = new ByteSequence();
+			views[index] = view;
+		}
+		view.set(data, columnStarts[index], columnStops[index]);
+		return view;
+	}
+
+
+	/**
+	 * @param index index of a column
+	 * @return the column as a new string
+	 */
+	public String getString (int index) {
+		return new String(data, columnStarts[index], getColumnLength(index), ByteSequence.CHARSET);
+	}
+
+
+	/**
+	 * @param firstIndex	index of a column
+	 * @param secondIndex	index of another column
+	 * @return true if both columns have the same content, false otherwise
+	 */
+	public boolean columnEquals (int firstIndex, int secondIndex) {
+		int length = getColumnLength(firstIndex);
+		if (length != getColumnLength(secondIndex)) {
+			return false;
+		}
+		int firstStart = columnStarts[firstIndex];
+		int secondStart = columnStarts[secondIndex];
+		for (int i = 0; i < length; i++) {
+			if (data[firstStart + i] != data[secondStart + i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+
+	/**
+	 * @param index		index of a column
+	 * @param sequence	a sequence of ASCII characters
+	 * @return true if the column has the same content as the sequence, false otherwise
+	 */
+	public boolean columnEquals (int index, CharSequence sequence) {
+		int length = getColumnLength(index);
+		if ((sequence == null) || (length != sequence.length())) {
+			return false;
+		}
+		int start = columnStarts[index];
+		for (int i = 0; i < length; i++) {
+			if ((data[start + i] & 0xFF) != sequence.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+
+	/**
+	 * Converts a column to an int reading its ASCII digits, as {@link Integer#parseInt(String)} would do.
+	 * @param index index of a column
+	 * @return the int value of the column, {@link #INVALID_INT} if the column is not a valid int (see {@link #isParseValid()})
+	 */
+	public int getInt (int index) {
+		isParseValid = false;
+		int start = columnStarts[index];
+		int stop = columnStops[index];
+		boolean isNegative = false;
+		if ((start < stop) && ((data[start] == '-') || (data[start] == '+'))) {
+			isNegative = data[start] == '-';
+			start++;
+		}
+		if (start == stop) {
+			return INVALID_INT;
+		}
+
+		long value = 0;
+		for (int i = start; i < stop; i++) {
+			int digit = data[i] - '0';
+			if ((digit < 0) || (digit > 9)) {
+				return INVALID_INT;
+			}
+			value = (value * 10) + digit;
+			if (value > (Integer.MAX_VALUE + 1L)) {			// overflow
+				return INVALID_INT;
+			}
+		}
+		if (isNegative) {
+			value = -value;
+		} else if (value > Integer.MAX_VALUE) {
+			return INVALID_INT;
+		}
+
+		isParseValid = true;
+		return (int) value;
+	}
+
+
+	/**
+	 * Converts a column to a double.
+	 * Plain decimal numbers are read from the ASCII digits, other notations (exponent, long mantissa...) are given to {@link Double#parseDouble(String)}.
+	 * @param index index of a column
+	 * @return the double value of the column, {@link #INVALID_DOUBLE} if the column is not a valid double (see {@link #isParseValid()})
+	 */
+	public double getDouble (int index) {
+		isParseValid = false;
+		int start = columnStarts[index];
+		int stop = columnStops[index];
+		boolean isNegative = false;
+		if ((start < stop) && ((data[start] == '-') || (data[start] == '+'))) {
+			isNegative = data[start] == '-';
+			start++;
+		}
+
+		long mantissa = 0;
+		int significantDigits = 0;
+		int fractionDigits = 0;
+		boolean hasDigit = false;
+		boolean hasDot = false;
+		boolean isFast = start < stop;
+		for (int i = start; (i < stop) && isFast; i++) {
+			int digit = data[i] - '0';
+			if ((digit >= 0) && (digit <= 9)) {
+				hasDigit = true;
+				mantissa = (mantissa * 10) + digit;
+				if (mantissa != 0) {
+					significantDigits++;
+				}
+				if (hasDot) {
+					fractionDigits++;
+				}
+			} else if ((data[i] == '.') && !hasDot) {
+				hasDot = true;
+			} else {
+				isFast = false;
+			}
+		}
+		isFast &= hasDigit && (significantDigits <= MAX_FAST_DIGITS) && (fractionDigits < POWERS_OF_TEN.length);
+
+		if (isFast) {
+			// both the mantissa and the power of ten are exact: the division is correctly rounded
+			double value = mantissa / POWERS_OF_TEN[fractionDigits];
+			isParseValid = true;
+			return isNegative ? -value : value;
+		}
+
+		try {
+			double value = Double.parseDouble(getString(index));
+			isParseValid = true;
+			return value;
+		} catch (NumberFormatException e) {
+			return INVALID_DOUBLE;
+		}
+	}
+
+
+	/**
+	 * @return true if the last conversion of a column to a number succeeded, false otherwise
+	 */
+	public boolean isParseValid () {
+		return isParseValid;
+	}
+
+
+	/**
+	 * This method returns the offset of the first digit from 1 to 9 found in a column, starting from the specified offset.
+	 * It works as {@link core.util.Utils#getFirstIntegerOffset(String, int)} does on a string.
+	 * @param index		index of a column
+	 * @param offset	the offset to start from
+	 * @return the offset of the digit in the column, -1 if not found
+	 */
+	public int getFirstIntegerOffset (int index, int offset) {
+		int start = columnStarts[index];
+		int length = getColumnLength(index);
+		for (int i = offset; i < length; i++) {
+			int c = data[start + i];
+			if ((c > 48) && (c <= 57)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+
+	/**
+	 * Appends a column to a {@link RecordFormatter}, the bytes are copied without being decoded
+	 * @param index		index of a column
+	 * @param formatter	the formatter
+	 */
+	public void appendColumn (int index, RecordFormatter formatter) {
+		formatter.append(data, columnStarts[index], columnStops[index]);
+	}
+
+}
@@ -52,22 +52,22 @@ public class ORILine extends Line {
 	}
 
 
+	/**
+	 * A line with one or two columns has no element
+	 */
 	@Override
-	public void initialize (String line) {
-		if (line == null) {							// if null
-			elements = null;						// there is no element and it is the last line
-		} else if (line.isEmpty()) {				// if empty: bad reading behavior
-			elements = new String[0];				// we filter setting the elements as "empty" in order to be skipped in the process
-		} else {									// the line matches the requirements
-			String[] subElements = Utils.splitWithTab(line);	// we split with tabulations
-			initializeFromArray(subElements);
+	protected void initializeFromTokenizer () {
+		int elementNumber = tokenizer.getColumnNumber();
+		if ((elementNumber == 1) || (elementNumber == 2)) {
+			clear();
+		} else {
+			super.initializeFromTokenizer();
 		}
-
-		finalizeInitialization();
 	}
 
 
 	public void initializeFromArray (String[] subElements) {
+		isTokenized = false;
 		if (subElements == null) {
 			elements = null;
 		} else {
@@ -95,7 +95,7 @@ public class ORILine extends Line {
 	 * @return the chromosome name
 	 */
 	public String getChromosome () {
-		return elements[0];
+		return getElement(0);
 	}
 
 
@@ -103,7 +103,15 @@ public class ORILine extends Line {
 	 * @return the start position
 	 */
 	public Integer getStartPosition () {
-		return Utils.getIntegerFromString(elements[1]);
+		return Utils.getIntegerFromString(getElement(1));
+	}
+
+
+	/**
+	 * @return the start position as an int ({@link LineTokenizer#INVALID_INT} if not valid)
+	 */
+	public int getStartPositionInt () {
+		return getIntElement(1);
 	}
 
 
@@ -111,7 +119,15 @@ public class ORILine extends Line {
 	 * @return the start position
 	 */
 	public Integer getStopPosition () {
-		return Utils.getIntegerFromString(elements[2]);
+		return Utils.getIntegerFromString(getElement(2));
+	}
+
+
+	/**
+	 * @return the start position as an int ({@link LineTokenizer#INVALID_INT} if not valid)
+	 */
+	public int getStopPositionInt () {
+		return getIntElement(2);
 	}
 
 
@@ -47,7 +47,7 @@ public class PairLine extends Line {
 	 * @return the IMAGE_ID
 	 */
 	public String getImageID () {
-		return elements[0];
+		return getElement(0);
 	}
 
 
@@ -55,7 +55,7 @@ public class PairLine extends Line {
 	 * @return the GENE_EXPR_OPTION
 	 */
 	public String getGeneExprOption () {
-		return elements[1];
+		return getElement(1);
 	}
 
 
@@ -63,7 +63,7 @@ public class PairLine extends Line {
 	 * @return the SEQ_ID
 	 */
 	public String getSeqID () {
-		return elements[2];
+		return getElement(2);
 	}
 
 
@@ -71,7 +71,7 @@ public class PairLine extends Line {
 	 * @return the PROBE_ID
 	 */
 	public String getProbeID () {
-		return elements[3];
+		return getElement(3);
 	}
 
 
@@ -79,7 +79,15 @@ public class PairLine extends Line {
 	 * @return the POSITION
 	 */
 	public Integer getPosition () {
-		return Utils.getIntegerFromString(elements[4]);
+		return Utils.getIntegerFromString(getElement(4));
+	}
+
+
+	/**
+	 * @return the POSITION as an int ({@link LineTokenizer#INVALID_INT} if not valid)
+	 */
+	public int getPositionInt () {
+		return getIntElement(4);
 	}
 
 
@@ -87,7 +95,15 @@ public class PairLine extends Line {
 	 * @return the X
 	 */
 	public Integer getX () {
-		return Utils.getIntegerFromString(elements[5]);
+		return Utils.getIntegerFromString(getElement(5));
+	}
+
+
+	/**
+	 * @return the X as an int ({@link LineTokenizer#INVALID_INT} if not valid)
+	 */
+	public int getXInt () {
+		return getIntElement(5);
 	}
 
 
@@ -95,7 +111,15 @@ public class PairLine extends Line {
 	 * @return the Y
 	 */
 	public Integer getY () {
-		return Utils.getIntegerFromString(elements[6]);
+		return Utils.getIntegerFromString(getElement(6));
+	}
+
+
+	/**
+	 * @return the Y as an int ({@link LineTokenizer#INVALID_INT} if not valid)
+	 */
+	public int getYInt () {
+		return getIntElement(6);
 	}
 
 
@@ -103,7 +127,15 @@ public class PairLine extends Line {
 	 * @return the MATCH_INDEX
 	 */
 	public Integer getMatchIndex () {
-		return Utils.getIntegerFromString(elements[7]);
+		return Utils.getIntegerFromString(getElement(7));
+	}
+
+
+	/**
+	 * @return the MATCH_INDEX as an int ({@link LineTokenizer#INVALID_INT} if not valid)
+	 */
+	public int getMatchIndexInt () {
+		return getIntElement(7);
 	}
 
 
@@ -111,7 +143,7 @@ public class PairLine extends Line {
 	 * @return the SEQ_URL
 	 */
 	public String getSeqUrl () {
-		return elements[8];
+		return getElement(8);
 	}
 
 
@@ -119,7 +151,15 @@ public class PairLine extends Line {
 	 * @return the PM
 	 */
 	public Double getPM () {
-		return Utils.getDoubleFromString(elements[9]);
+		return Utils.getDoubleFromString(getElement(9));
+	}
+
+
+	/**
+	 * @return the PM as a double ({@link LineTokenizer#INVALID_DOUBLE} if not valid)
+	 */
+	public double getPMDouble () {
+		return getDoubleElement(9);
 	}
 
 
@@ -127,7 +167,15 @@ public class PairLine extends Line {
 	 * @return the MM
 	 */
 	public Double getMM () {
-		return Utils.getDoubleFromString(elements[10]);
+		return Utils.getDoubleFromString(getElement(10));
+	}
+
+
+	/**
+	 * @return the MM as a double ({@link LineTokenizer#INVALID_DOUBLE} if not valid)
+	 */
+	public double getMMDouble () {
+		return getDoubleElement(10);
 	}
 
 }
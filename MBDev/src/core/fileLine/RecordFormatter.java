@@ -0,0 +1,229 @@
+/*******************************************************************************
+ * Montpellier Biology Developpment
+ * This project aims to create a tool to process and analyse data of a project in the field of Biology.
+ * Copyright (C) 2012, Nicolas Fourel
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Authors:
+ * 	Nicolas Fourel <nicolas.fourel@live.fr>
+ * 	Romain Desprat <rdesprat@gmail.com>
+ ******************************************************************************/
+package core.fileLine;
+
+import java.util.Arrays;
+
+
+/**
+ * The {@link RecordFormatter} builds a tab-delimited record in a reusable byte buffer.
+ * Numbers are written digit by digit and text is copied byte by byte, no intermediate string is created.
+ * Numbers have the same text as {@link String#valueOf(int)}, {@link String#valueOf(double)} and {@link String#valueOf(float)}.
+ * @author Nicolas Fourel
+ * @version 0.1
+ */
+public class RecordFormatter {
+
+	private static final int DEFAULT_BUFFER_LENGTH = 256;				// Initial length of the buffer.
+	private static final byte[] MIN_INT = "-2147483648".getBytes();		// Text of the only int that cannot be negated.
+
+	private byte[] buffer;						// The buffer containing the record.
+	private int length;							// The number of bytes of the record.
+	private final StringBuilder numberBuilder;	// The builder reused to get the text of floating point numbers.
+
+
+	/**
+	 * Constructor of {@link RecordFormatter}
+	 */
+	public RecordFormatter () {
+		buffer = new byte[DEFAULT_BUFFER_LENGTH];
+		length = 0;
+		numberBuilder = new StringBuilder(32);
+	}
+
+
+	/**
+	 * Removes the current record
+	 * @return this formatter
+	 */
+	public RecordFormatter clear () {
+		length = 0;
+		return this;
+	}
+
+
+	/**
+	 * Makes sure that the buffer can receive a number of bytes
+	 * @param additionalLength a number of bytes
+	 */
+	private void ensureCapacity (int additionalLength) {
+		int newLength = length + additionalLength;
+		if (newLength > buffer.length) {
+			buffer = Arrays.copyOf(buffer, Math.max(newLength, buffer.length * 2));
+		}
+	}
+
+
+	/**
+	 * Appends a tabulation
+	 * @return this formatter
+	 */
+	public RecordFormatter tab () {
+		return append('\t');
+	}
+
+
+	/**
+	 * Appends an ASCII character
+	 * @param c the character
+	 * @return this formatter
+	 */
+	public RecordFormatter append (char c) {
+		ensureCapacity(1);
+		buffer[length++] = (byte) c;
+		return this;
+	}
+
+
+	/**
+	 * Appends an integer
+	 * @param value the integer
+	 * @return this formatter
+	 */
+	public RecordFormatter append (int value) {
+		if (value == Integer.MIN_VALUE) {
+			return append(MIN_INT, 0, MIN_INT.length);
+		}
+		int digitNumber = 1;
+		int absoluteValue = value < 0 ? -value : value;
+		for (int i = absoluteValue; i >= 10; i /= 10) {
+			digitNumber++;
+		}
+		ensureCapacity(digitNumber + 1);
+		if (value < 0) {
+			buffer[length++] = '-';
+		}
+		int index = length + digitNumber;
+		do {
+			buffer[--index] = (byte) ('0' + (absoluteValue % 10));
+			absoluteValue /= 10;
+		} while (absoluteValue > 0);
+		length += digitNumber;
+		return this;
+	}
+
+
+	/**
+	 * Appends a double, with the same text as {@link String#valueOf(double)}
+	 * @param value the double
+	 * @return this formatter
+	 */
+	public RecordFormatter append (double value) {
+		numberBuilder.setLength(0);
+		numberBuilder.append(value);
+		return appendNumberBuilder();
+	}
+
+
+	/**
+	 * Appends a float, with the same text as {@link String#valueOf(float)}
+	 * @param value the float
+	 * @return this formatter
+	 */
+	public RecordFormatter append (float value) {
+		numberBuilder.setLength(0);
+		numberBuilder.append(value);
+		return appendNumberBuilder();
+	}
+
+
+	/**
+	 * Appends the content of the number builder (ASCII characters only)
+	 * @return this formatter
+	 */
+	private RecordFormatter appendNumberBuilder () {
+		int numberLength = numberBuilder.length();
+		ensureCapacity(numberLength);
+		for (int i = 0; i < numberLength; i++) {
+			buffer[length++] = (byte) numberBuilder.charAt(i);
+		}
+		return this;
+	}
+
+
+	/**
+	 * Appends a region of a byte array
+	 * @param data	an array
+	 * @param start	index of the first byte
+	 * @param stop	index right after the last byte
+	 * @return this formatter
+	 */
+	public RecordFormatter append (byte[] data, int start, int stop) {
+		int dataLength = stop - start;
+		ensureCapacity(dataLength);
+		System.arraycopy(data, start, buffer, length, dataLength);
+		length += dataLength;
+		return this;
+	}
+
+
+	/**
+	 * Appends a sequence of characters, ASCII characters are copied directly and the others encoded in UTF-8
+	 * @param sequence the sequence (null is written as "null")
+	 * @return this formatter
+	 */
+	public RecordFormatter append (CharSequence sequence) {
+		if (sequence == null) {
+			sequence = "null";
+		}
+		if (sequence instanceof ByteSequence) {
+			ByteSequence bytes = (ByteSequence) sequence;
+			return append(bytes.getData(), bytes.getStart(), bytes.getStart() + bytes.length());
+		}
+		int sequenceLength = sequence.length();
+		ensureCapacity(sequenceLength);
+		for (int i = 0; i < sequenceLength; i++) {
+			char c = sequence.charAt(i);
+			if (c < 128) {
+				buffer[length++] = (byte) c;
+			} else {
+				byte[] encoded = sequence.subSequence(i, sequenceLength).toString().getBytes(ByteSequence.CHARSET);
+				return append(encoded, 0, encoded.length);
+			}
+		}
+		return this;
+	}
+
+
+	/**
+	 * @return the buffer containing the record (only the first {@link #length()} bytes are meaningful)
+	 */
+	public byte[] getData () {
+		return buffer;
+	}
+
+
+	/**
+	 * @return the number of bytes of the record
+	 */
+	public int length () {
+		return length;
+	}
+
+
+	@Override
+	public String toString () {
+		return new String(buffer, 0, length, ByteSequence.CHARSET);
+	}
+
+}
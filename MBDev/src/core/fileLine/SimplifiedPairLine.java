@@ -47,7 +47,7 @@ public class SimplifiedPairLine extends Line {
 	 * @return the SEQ_ID
 	 */
 	public String getSeqID () {
-		return elements[0];
+		return getElement(0);
 	}
 
 
@@ -55,7 +55,7 @@ public class SimplifiedPairLine extends Line {
 	 * @return the PROBE_ID
 	 */
 	public String getProbeID () {
-		return elements[1];
+		return getElement(1);
 	}
 
 
@@ -63,7 +63,15 @@ public class SimplifiedPairLine extends Line {
 	 * @return the POSITION
 	 */
 	public Integer getPosition () {
-		return Utils.getIntegerFromString(elements[2]);
+		return Utils.getIntegerFromString(getElement(2));
+	}
+
+
+	/**
+	 * @return the POSITION as an int ({@link LineTokenizer#INVALID_INT} if not valid)
+	 */
+	public int getPositionInt () {
+		return getIntElement(2);
 	}
 
 
@@ -71,7 +79,15 @@ public class SimplifiedPairLine extends Line {
 	 * @return the PM
 	 */
 	public Double getPM () {
-		return Utils.getDoubleFromString(elements[3]);
+		return Utils.getDoubleFromString(getElement(3));
+	}
+
+
+	/**
+	 * @return the PM as a double ({@link LineTokenizer#INVALID_DOUBLE} if not valid)
+	 */
+	public double getPMDouble () {
+		return getDoubleElement(3);
 	}
 
 }
@@ -47,7 +47,7 @@ public class TimingDespratLine extends TimingLine {
 	 * @return the chromosome name
 	 */
 	public String getChromosome () {
-		return elements[0];
+		return getElement(0);
 	}
 
 
@@ -55,7 +55,15 @@ public class TimingDespratLine extends TimingLine {
 	 * @return the start position
 	 */
 	public Integer getStart() {
-		return Utils.getIntegerFromString(elements[1]);
+		return Utils.getIntegerFromString(getElement(1));
+	}
+
+
+	/**
+	 * @return the start position as an int ({@link LineTokenizer#INVALID_INT} if not valid)
+	 */
+	public int getStartInt() {
+		return getIntElement(1);
 	}
 
 
@@ -63,7 +71,15 @@ public class TimingDespratLine extends TimingLine {
 	 * @return the stop position
 	 */
 	public Integer getStop() {
-		return Utils.getIntegerFromString(elements[2]);
+		return Utils.getIntegerFromString(getElement(2));
+	}
+
+
+	/**
+	 * @return the stop position as an int ({@link LineTokenizer#INVALID_INT} if not valid)
+	 */
+	public int getStopInt() {
+		return getIntElement(2);
 	}
 
 
@@ -71,7 +87,15 @@ public class TimingDespratLine extends TimingLine {
 	 * @return the coefficient
 	 */
 	public Double getValue () {
-		return Utils.getDoubleFromString(elements[3]);
+		return Utils.getDoubleFromString(getElement(3));
+	}
+
+
+	/**
+	 * @return the coefficient as a double ({@link LineTokenizer#INVALID_DOUBLE} if not valid)
+	 */
+	public double getValueDouble () {
+		return getDoubleElement(3);
 	}
 
 
@@ -86,4 +110,24 @@ public class TimingDespratLine extends TimingLine {
 		return getValue();
 	}
 
+
+	@Override
+	public int getPositionInt() {
+		int start = getStartInt();
+		if (!isParseValid()) {
+			return LineTokenizer.INVALID_INT;
+		}
+		int stop = getStopInt();
+		if (!isParseValid()) {
+			return LineTokenizer.INVALID_INT;
+		}
+		return start + ((stop - start) / 2);
+	}
+
+
+	@Override
+	public double getCoeffDouble() {
+		return getValueDouble();
+	}
+
 }
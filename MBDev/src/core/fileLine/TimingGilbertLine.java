@@ -44,41 +44,45 @@ public class TimingGilbertLine extends TimingLine {
 
 
 	/**
-	 * Initialize the object with a line
-	 * @param line a line from a file
+	 * Skips the probe prefix of the position column
 	 */
 	@Override
-	public void initialize (String line) {
-		if (line == null) {							// if null
-			elements = null;						// there is no element and it is the last line
-		} else if (line.isEmpty()) {				// if empty: bad reading behavior
-			elements = new String[0];				// we filter setting the elements as "empty" in order to be skipped in the process
-		} else {									// the line matches the requirements
-			elements = Utils.splitWithTab(line);	// we split with tabulations
-		}
-
-		if ((elements != null) && (elements.length == columnNumber)) {
-			isValid = true;
+	protected void initializeFromTokenizer () {
+		super.initializeFromTokenizer();
 
-			int integerStart = Utils.getFirstIntegerOffset(elements[0], 5);
+		if (isValid) {
+			int integerStart = tokenizer.getFirstIntegerOffset(0, 5);
 			//int integerStart = 5;
-			elements[0] = elements[0].substring(integerStart);
-
-		} else {
-			isValid = false;
+			if (integerStart == -1) {
+				isValid = false;
+			} else {
+				tokenizer.skipColumnStart(0, integerStart);
+			}
 		}
 	}
 
 
 	@Override
 	public Integer getPosition () {
-		return Utils.getIntegerFromString(elements[0]);
+		return Utils.getIntegerFromString(getElement(0));
 	}
 
 
 	@Override
 	public Double getCoeff () {
-		return Utils.getDoubleFromString(elements[1]);
+		return Utils.getDoubleFromString(getElement(1));
+	}
+
+
+	@Override
+	public int getPositionInt () {
+		return getIntElement(0);
+	}
+
+
+	@Override
+	public double getCoeffDouble () {
+		return getDoubleElement(1);
 	}
 
 }
@@ -55,6 +55,18 @@ public abstract class TimingLine extends Line {
 	public abstract Double getCoeff ();
 
 
+	/**
+	 * @return the position as an int ({@link LineTokenizer#INVALID_INT} if not valid)
+	 */
+	public abstract int getPositionInt ();
+
+
+	/**
+	 * @return the coefficient as a double ({@link LineTokenizer#INVALID_DOUBLE} if not valid)
+	 */
+	public abstract double getCoeffDouble ();
+
+
 	public static String getChromosome (String line) {
 		String result = null;
 		if (line != null) {
@@ -80,6 +80,12 @@ public abstract class ArrayAsDoubleList<T> extends AbstractList<Double> implemen
 	public abstract void sort();
 
 
+	/**
+	 * Sorts the list using several threads
+	 */
+	public abstract void parallelSort();
+
+
 	/**
 	 * Default constructor. Do nothing.
 	 */
@@ -49,6 +49,7 @@ public class ByteArrayAsChromosomeList extends AbstractList<String> implements S
 	private static final int 	RESIZE_MIN = 1000;		// minimum length added every time the array is resized
 	private static final int 	RESIZE_MAX = 10000000;	// maximum length added every time the array is resized
 	private static final int 	RESIZE_FACTOR = 2;		// multiplication factor of the length of the array every time it's resized
+	private static final String[]	NAMES = new String[256];	// chromosome names already built, indexed by code + 128
 	private byte[] 				value;					// int value array
 	private int 				size;					// size of the list
 
@@ -97,6 +98,17 @@ public class ByteArrayAsChromosomeList extends AbstractList<String> implements S
 	}
 
 
+	/**
+	 * Creates an instance of {@link ByteArrayAsChromosomeList} using an existing array (the array is not copied)
+	 * @param value	the array of chromosome codes
+	 * @param size	the number of codes of the array in the list
+	 */
+	public ByteArrayAsChromosomeList(byte[] value, int size) {
+		this.value = value;
+		this.size = size;
+	}
+
+
 	@Override
 	public boolean add(String e) {
 		Integer chr;
@@ -134,16 +146,47 @@ public class ByteArrayAsChromosomeList extends AbstractList<String> implements S
 
 	@Override
 	public String get(int index) {
-		if (value[index] == CHRX) {
-			return "chrX";
-		}
-		if (value[index] == CHRY) {
-			return "chrY";
-		}
-		if (value[index] == CHRM) {
-			return "chrM";
+		return getName(value[index]);
+	}
+
+
+	/**
+	 * @param index index of a chromosome
+	 * @return the code of the chromosome (its number, or a negative value for X, Y and M)
+	 */
+	public byte getCode(int index) {
+		return value[index];
+	}
+
+
+	/**
+	 * @param index	index of a chromosome
+	 * @param code	the code of the chromosome (see {@link #getCode(int)})
+	 */
+	public void setCode(int index, byte code) {
+		value[index] = code;
+	}
+
+
+	/**
+	 * @param code the code of a chromosome
+	 * @return the name of the chromosome
+	 */
+	public static String getName(byte code) {
+		String name = NAMES[code + 128];
+		if (name == null) {
+			if (code == CHRX) {
+				name = "chrX";
+			} else if (code == CHRY) {
+				name = "chrY";
+			} else if (code == CHRM) {
+				name = "chrM";
+			} else {
+				name = "chr" + code;
+			}
+			NAMES[code + 128] = name;
 		}
-		return "chr" + value[index];
+		return name;
 	}
 
 
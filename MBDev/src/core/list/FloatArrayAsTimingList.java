@@ -28,6 +28,8 @@ import java.io.Serializable;
 import java.util.Arrays;
 import java.util.List;
 
+import core.util.ArraySorter;
+
 
 
 /**
@@ -84,10 +86,16 @@ public final class FloatArrayAsTimingList extends ArrayAsDoubleList<float[]> imp
 
 	@Override
 	public void sort() {
-		Arrays.sort(data);
+		Arrays.sort(data, 0, size);
 	};
 
 
+	@Override
+	public void parallelSort() {
+		ArraySorter.parallelSort(data, 0, size);
+	}
+
+
 	@Override
 	public boolean add(Double e) {
 		if (e == null) {
@@ -0,0 +1,106 @@
+/*******************************************************************************
+ * Montpellier Biology Developpment
+ * This project aims to create a tool to process and analyse data of a project in the field of Biology.
+ * Copyright (C) 2012, Nicolas Fourel
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Authors:
+ * 	Nicolas Fourel <nicolas.fourel@live.fr>
+ * 	Romain Desprat <rdesprat@gmail.com>
+ ******************************************************************************/
+package core.list;
+
+import java.util.Arrays;
+import java.util.List;
+
+import core.fileLine.RecordFormatter;
+import core.list.file.ORILineFile;
+
+
+/**
+ * The annotations of the HiC positions of a {@link HiCORIMap}, computed once and kept as bytes ready to be written.
+ * An annotation is either the number of ORI related to the position or the list of their names separated with ';'.
+ * Only the ORI closer than a threshold to their position can be annotated, a position without such ORI has an empty annotation.
+ * @author Nicolas Fourel
+ * @version 0.1
+ */
+public class HiCORIAnnotations {
+
+	private final byte[] heap;		// The annotations, next to each other.
+	private final int[] offsets;	// The offsets of the annotations in the heap (one more than the number of positions).
+
+
+	/**
+	 * Constructor of {@link HiCORIAnnotations}
+	 * @param map		the map between the HiC positions and the ORI of a chromosome (built)
+	 * @param oriList	the ORI files the map refers to
+	 * @param withNames	true to annotate the positions with the names of their ORI, false with the number of ORI
+	 */
+	public HiCORIAnnotations (HiCORIMap map, List<ORILineFile> oriList, boolean withNames) {
+		this(map, oriList, withNames, -1);
+	}
+
+
+	/**
+	 * Constructor of {@link HiCORIAnnotations}
+	 * @param map		the map between the HiC positions and the ORI of a chromosome (built)
+	 * @param oriList	the ORI files the map refers to
+	 * @param withNames	true to annotate the positions with the names of their ORI, false with the number of ORI
+	 * @param threshold	the length threshold of the annotated ORI (no threshold: -1)
+	 */
+	public HiCORIAnnotations (HiCORIMap map, List<ORILineFile> oriList, boolean withNames, int threshold) {
+		int size = map.size();
+		RecordFormatter formatter = new RecordFormatter();
+		offsets = new int[size + 1];
+		byte[] heap = new byte[Math.max(16, size * 4)];
+		int length = 0;
+		for (int index = 0; index < size; index++) {
+			formatter.clear();
+			int start = map.getStart(index);
+			int stop = map.getStop(index);
+			if (withNames) {
+				boolean isFirst = true;
+				for (int entry = start; entry < stop; entry++) {
+					if (HiCORIMap.isInThreshold(map.getDistance(entry), threshold)) {
+						if (!isFirst) {
+							formatter.append(';');
+						}
+						oriList.get(map.getFileIndex(entry)).appendName(map.getORIIndex(entry), formatter);
+						isFirst = false;
+					}
+				}
+			} else if (map.getORINumber(index, threshold) > 0) {
+				formatter.append(map.getORINumber(index, threshold));
+			}
+			if ((length + formatter.length()) > heap.length) {
+				heap = Arrays.copyOf(heap, Math.max(heap.length * 2, length + formatter.length()));
+			}
+			System.arraycopy(formatter.getData(), 0, heap, length, formatter.length());
+			length += formatter.length();
+			offsets[index + 1] = length;
+		}
+		this.heap = Arrays.copyOf(heap, length);
+	}
+
+
+	/**
+	 * Appends the annotation of a position to a formatter
+	 * @param index		index of the position in the map (see {@link HiCORIMap#getIndex(int)})
+	 * @param formatter	the formatter
+	 */
+	public void append (int index, RecordFormatter formatter) {
+		formatter.append(heap, offsets[index], offsets[index + 1]);
+	}
+}
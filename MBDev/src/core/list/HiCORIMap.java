@@ -0,0 +1,363 @@
+/*******************************************************************************
+ * Montpellier Biology Developpment
+ * This project aims to create a tool to process and analyse data of a project in the field of Biology.
+ * Copyright (C) 2012, Nicolas Fourel
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Authors:
+ * 	Nicolas Fourel <nicolas.fourel@live.fr>
+ * 	Romain Desprat <rdesprat@gmail.com>
+ ******************************************************************************/
+package core.list;
+
+import java.util.Arrays;
+
+
+/**
+ * Relates the HiC positions of a chromosome to the ORI close to them, without any boxing.
+ * The map is filled with {@link #add(int, int, int)} then frozen with {@link #build()}.
+ * The positions are found with an open addressing hash table. The ORI of the positions are stored CSR-style:
+ * the ORI of a position are in the flat arrays of file and ORI indexes, from {@link #getStart(int)} (included) to {@link #getStop(int)} (excluded),
+ * sorted by file index then ORI index.
+ * The distance between every ORI and its HiC position is kept: a map built without threshold can be read for any threshold (see {@link #getORINumber(int, int)}).
+ * Once built, the positions are indexed in increasing order: they can also be walked along with a cursor (see {@link #newCursor()}).
+ * @author Nicolas Fourel
+ * @version 0.1
+ */
+public class HiCORIMap {
+
+	private static final int EMPTY = -1;			// Value of an empty slot of the hash table.
+	private static final int INITIAL_CAPACITY = 16;	// Initial number of slots of the hash table.
+
+	private int[] slotPositions;				// The positions in the hash table.
+	private int[] slotIndexes;					// The indexes of the positions in the hash table (EMPTY if the slot is empty).
+	private int mask;							// The mask giving the slot of a hash.
+	private int size;							// The number of positions.
+
+	private int[] positions;					// The positions, in the order they have been added (in increasing order once built).
+	private int[] offsets;						// The index of the first ORI of every position (one more than the number of positions).
+	private int[] fileIndexes;					// The file indexes of the ORI.
+	private int[] oriIndexes;					// The ORI indexes of the ORI in their file.
+	private int[] distances;					// The distances between the ORI and their HiC position.
+
+	private IntArrayAsIntegerList addedIndexes;	// The position indexes of the added ORI (null once built).
+	private IntArrayAsIntegerList addedFiles;	// The file indexes of the added ORI (null once built).
+	private IntArrayAsIntegerList addedORI;		// The ORI indexes of the added ORI (null once built).
+	private IntArrayAsIntegerList addedDistances;	// The distances of the added ORI (null once built).
+
+
+	/**
+	 * Constructor of {@link HiCORIMap}
+	 */
+	public HiCORIMap () {
+		slotPositions = new int[INITIAL_CAPACITY];
+		slotIndexes = new int[INITIAL_CAPACITY];
+		Arrays.fill(slotIndexes, EMPTY);
+		mask = INITIAL_CAPACITY - 1;
+		size = 0;
+		positions = new int[INITIAL_CAPACITY];
+		offsets = new int[INITIAL_CAPACITY + 1];
+		addedIndexes = new IntArrayAsIntegerList();
+		addedFiles = new IntArrayAsIntegerList();
+		addedORI = new IntArrayAsIntegerList();
+		addedDistances = new IntArrayAsIntegerList();
+	}
+
+
+	/**
+	 * Relates an ORI to a HiC position
+	 * @param position	the HiC position
+	 * @param fileIndex	index of the ORI file
+	 * @param oriIndex	index of the ORI in its file
+	 */
+	public void add (int position, int fileIndex, int oriIndex) {
+		add(position, fileIndex, oriIndex, 0);
+	}
+
+
+	/**
+	 * Relates an ORI to a HiC position
+	 * @param position	the HiC position
+	 * @param fileIndex	index of the ORI file
+	 * @param oriIndex	index of the ORI in its file
+	 * @param distance	the distance between the ORI and the HiC position
+	 */
+	public void add (int position, int fileIndex, int oriIndex, int distance) {
+		int index = getIndex(position);
+		if (index == EMPTY) {
+			index = insert(position);
+		}
+		// offsets counts the ORI of every position until the map is built
+		offsets[index + 1]++;
+		addedIndexes.addInt(index);
+		addedFiles.addInt(fileIndex);
+		addedORI.addInt(oriIndex);
+		addedDistances.addInt(distance);
+	}
+
+
+	/**
+	 * Adds a new position
+	 * @param position the HiC position
+	 * @return the index of the position
+	 */
+	private int insert (int position) {
+		if ((size * 2) >= slotIndexes.length) {
+			rehash(slotIndexes.length * 2);
+		}
+		if ((size + 1) >= offsets.length) {
+			positions = Arrays.copyOf(positions, positions.length * 2);
+			offsets = Arrays.copyOf(offsets, (positions.length) + 1);
+		}
+		int slot = getSlot(position);
+		while (slotIndexes[slot] != EMPTY) {
+			slot = (slot + 1) & mask;
+		}
+		slotPositions[slot] = position;
+		slotIndexes[slot] = size;
+		positions[size] = position;
+		size++;
+		return size - 1;
+	}
+
+
+	/**
+	 * Resizes the hash table
+	 * @param capacity the new number of slots
+	 */
+	private void rehash (int capacity) {
+		slotPositions = new int[capacity];
+		slotIndexes = new int[capacity];
+		Arrays.fill(slotIndexes, EMPTY);
+		mask = capacity - 1;
+		for (int index = 0; index < size; index++) {
+			int slot = getSlot(positions[index]);
+			while (slotIndexes[slot] != EMPTY) {
+				slot = (slot + 1) & mask;
+			}
+			slotPositions[slot] = positions[index];
+			slotIndexes[slot] = index;
+		}
+	}
+
+
+	/**
+	 * @param position a HiC position
+	 * @return the first slot to look at for the position
+	 */
+	private int getSlot (int position) {
+		int hash = position * 0x9E3779B9;
+		return (hash ^ (hash >>> 16)) & mask;
+	}
+
+
+	/**
+	 * Freezes the map: indexes the positions in increasing order and places the ORI of every position next to each other, sorted by file index then ORI index.
+	 */
+	public void build () {
+		if (addedIndexes == null) {
+			return;
+		}
+		positions = Arrays.copyOf(positions, size);
+		offsets = Arrays.copyOf(offsets, size + 1);
+		int[] ranks = sortPositions();
+		for (int index = 0; index < size; index++) {
+			offsets[index + 1] += offsets[index];
+		}
+
+		int oriNumber = addedIndexes.size();
+		fileIndexes = new int[oriNumber];
+		oriIndexes = new int[oriNumber];
+		distances = new int[oriNumber];
+		int[] nextEntries = Arrays.copyOf(offsets, size);
+		for (int i = 0; i < oriNumber; i++) {
+			int entry = nextEntries[ranks[addedIndexes.getInt(i)]]++;
+			fileIndexes[entry] = addedFiles.getInt(i);
+			oriIndexes[entry] = addedORI.getInt(i);
+			distances[entry] = addedDistances.getInt(i);
+		}
+		addedIndexes = null;
+		addedFiles = null;
+		addedORI = null;
+		addedDistances = null;
+
+		// the ORI of a position are few: an insertion sort is enough
+		for (int index = 0; index < size; index++) {
+			for (int i = offsets[index] + 1; i < offsets[index + 1]; i++) {
+				int fileIndex = fileIndexes[i];
+				int oriIndex = oriIndexes[i];
+				int distance = distances[i];
+				int j = i - 1;
+				while ((j >= offsets[index]) && ((fileIndexes[j] > fileIndex) || ((fileIndexes[j] == fileIndex) && (oriIndexes[j] > oriIndex)))) {
+					fileIndexes[j + 1] = fileIndexes[j];
+					oriIndexes[j + 1] = oriIndexes[j];
+					distances[j + 1] = distances[j];
+					j--;
+				}
+				fileIndexes[j + 1] = fileIndex;
+				oriIndexes[j + 1] = oriIndex;
+				distances[j + 1] = distance;
+			}
+		}
+	}
+
+
+	/**
+	 * Sorts the positions and their number of ORI, and updates their indexes in the hash table
+	 * @return the new index of every position, by old index
+	 */
+	private int[] sortPositions () {
+		// the index of a position is in the lower bits: the positions are unique and the keys are sorted by position
+		long[] keys = new long[size];
+		for (int index = 0; index < size; index++) {
+			keys[index] = ((long) positions[index] << 32) | index;
+		}
+		Arrays.sort(keys);
+		int[] ranks = new int[size];
+		int[] sortedPositions = new int[size];
+		int[] sortedOffsets = new int[size + 1];
+		for (int rank = 0; rank < size; rank++) {
+			int index = (int) keys[rank];
+			ranks[index] = rank;
+			sortedPositions[rank] = positions[index];
+			sortedOffsets[rank + 1] = offsets[index + 1];
+		}
+		positions = sortedPositions;
+		offsets = sortedOffsets;
+		for (int slot = 0; slot < slotIndexes.length; slot++) {
+			if (slotIndexes[slot] != EMPTY) {
+				slotIndexes[slot] = ranks[slotIndexes[slot]];
+			}
+		}
+		return ranks;
+	}
+
+
+	/**
+	 * @return the number of HiC positions related to at least one ORI
+	 */
+	public int size () {
+		return size;
+	}
+
+
+	/**
+	 * @param position a HiC position
+	 * @return the index of the position, -1 if no ORI is related to it
+	 */
+	public int getIndex (int position) {
+		int slot = getSlot(position);
+		int index;
+		while ((index = slotIndexes[slot]) != EMPTY) {
+			if (slotPositions[slot] == position) {
+				return index;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return EMPTY;
+	}
+
+
+	/**
+	 * The map must have been built.
+	 * @return a new cursor over the positions, the indexes it finds are the indexes of the positions
+	 */
+	public IntCursor newCursor () {
+		return new IntCursor(positions, size);
+	}
+
+
+	/**
+	 * @param index index of a position
+	 * @return the position
+	 */
+	public int getPosition (int index) {
+		return positions[index];
+	}
+
+
+	/**
+	 * @param index index of a position (see {@link #getIndex(int)})
+	 * @return the index of the first ORI of the position
+	 */
+	public int getStart (int index) {
+		return offsets[index];
+	}
+
+
+	/**
+	 * @param index index of a position (see {@link #getIndex(int)})
+	 * @return the index right after the last ORI of the position
+	 */
+	public int getStop (int index) {
+		return offsets[index + 1];
+	}
+
+
+	/**
+	 * @param entry index of an ORI (between {@link #getStart(int)} and {@link #getStop(int)})
+	 * @return the index of the file of the ORI
+	 */
+	public int getFileIndex (int entry) {
+		return fileIndexes[entry];
+	}
+
+
+	/**
+	 * @param entry index of an ORI (between {@link #getStart(int)} and {@link #getStop(int)})
+	 * @return the index of the ORI in its file
+	 */
+	public int getORIIndex (int entry) {
+		return oriIndexes[entry];
+	}
+
+
+	/**
+	 * @param entry index of an ORI (between {@link #getStart(int)} and {@link #getStop(int)})
+	 * @return the distance between the ORI and its HiC position
+	 */
+	public int getDistance (int entry) {
+		return distances[entry];
+	}
+
+
+	/**
+	 * @param distance	the distance between an ORI and its HiC position
+	 * @param threshold	the length threshold (no threshold: -1)
+	 * @return true if the distance is lower than the threshold, false otherwise
+	 */
+	public static boolean isInThreshold (int distance, int threshold) {
+		return (threshold == -1) || (distance < threshold);
+	}
+
+
+	/**
+	 * @param index		index of a position (see {@link #getIndex(int)})
+	 * @param threshold	the length threshold (no threshold: -1)
+	 * @return the number of ORI of the position closer than the threshold
+	 */
+	public int getORINumber (int index, int threshold) {
+		if (threshold == -1) {
+			return offsets[index + 1] - offsets[index];
+		}
+		int number = 0;
+		for (int entry = offsets[index]; entry < offsets[index + 1]; entry++) {
+			if (distances[entry] < threshold) {
+				number++;
+			}
+		}
+		return number;
+	}
+}
@@ -31,6 +31,8 @@ import java.util.AbstractList;
 import java.util.Arrays;
 import java.util.List;
 
+import core.util.ArraySorter;
+
 
 /**
  * This class implements the List of Integer interface but internally
@@ -93,43 +95,144 @@ public class IntArrayAsIntegerList extends AbstractList<Integer> implements Seri
 	}
 
 
+	/**
+	 * Creates an instance of {@link IntArrayAsIntegerList} using an existing array (the array is not copied)
+	 * @param data	the array
+	 * @param size	the number of values of the array in the list
+	 */
+	public IntArrayAsIntegerList(int[] data, int size) {
+		this.data = data;
+		this.size = size;
+	}
+
+
 	/**
 	 * Sorts the list
 	 */
 	public void sort() {
-		Arrays.sort(data);
+		Arrays.sort(data, 0, size);
 	};
 
 
+	/**
+	 * Sorts the list using several threads
+	 */
+	public void parallelSort() {
+		ArraySorter.parallelSort(data, 0, size);
+	}
+
+
 	@Override
 	public boolean add(Integer e) {
+		return addInt(e);
+	}
+
+
+	/**
+	 * Adds a value without boxing it
+	 * @param value the value
+	 * @return true
+	 */
+	public boolean addInt(int value) {
 		// if the array is to small we resize it before adding the data
 		if (size >= data.length) {
-			// we multiply the current size by the resize multiplication factor
-			int newLength = data.length * RESIZE_FACTOR;
-			// we make sure we don't add less than RESIZE_MIN elements
-			newLength = Math.max(newLength, data.length + RESIZE_MIN);
-			// we make sure we don't add more than RESIZE_MAX elements
-			newLength = Math.min(newLength, data.length + RESIZE_MAX);
-			int[] newData = new int[newLength];
-			for (int i = 0; i < data.length; i++) {
-				newData[i] = data[i];
-			}
-			data = newData;
+			grow(size + 1);
 		}
-		// true if e is not zero
-		data[size] = e;
+		data[size] = value;
 		size++;
 		return true;
 	}
 
 
+	/**
+	 * Adds all the values of an array
+	 * @param values the array
+	 * @return true if the list changed
+	 */
+	public boolean addAll(int[] values) {
+		return addAll(values, 0, values.length);
+	}
+
+
+	/**
+	 * Adds the values of a region of an array
+	 * @param values	the array
+	 * @param start		index of the first value to add
+	 * @param length	number of values to add
+	 * @return true if the list changed
+	 */
+	public boolean addAll(int[] values, int start, int length) {
+		ensureCapacity(size + length);
+		System.arraycopy(values, start, data, size, length);
+		size += length;
+		return length > 0;
+	}
+
+
+	/**
+	 * Makes sure the list can contain a number of values without being resized
+	 * @param capacity the number of values
+	 */
+	public void ensureCapacity(int capacity) {
+		if (capacity > data.length) {
+			grow(capacity);
+		}
+	}
+
+
+	/**
+	 * Resizes the array in order to contain at least a number of values
+	 * @param capacity the number of values
+	 */
+	private void grow(int capacity) {
+		// we multiply the current size by the resize multiplication factor
+		int newLength = data.length * RESIZE_FACTOR;
+		// we make sure we don't add less than RESIZE_MIN elements
+		newLength = Math.max(newLength, data.length + RESIZE_MIN);
+		// we make sure we don't add more than RESIZE_MAX elements
+		newLength = Math.min(newLength, data.length + RESIZE_MAX);
+		// we make sure the array is large enough
+		newLength = Math.max(newLength, capacity);
+		data = Arrays.copyOf(data, newLength);
+	}
+
+
+	/**
+	 * Resizes the array to the size of the list
+	 */
+	public void trimToSize() {
+		if (size < data.length) {
+			data = Arrays.copyOf(data, size);
+		}
+	}
+
+
+	/**
+	 * Resizes the array to the size of the list and returns it.
+	 * The array is not copied: it is shared with the list until the list is modified.
+	 * @return the values of the list
+	 */
+	public int[] toIntArray() {
+		trimToSize();
+		return data;
+	}
+
+
 	@Override
 	public Integer get(int index) {
 		return data[index];
 	}
 
 
+	/**
+	 * @param index index of a value
+	 * @return the value as a primitive int
+	 */
+	public int getInt(int index) {
+		return data[index];
+	}
+
+
 	/**
 	 * @return null in order to accelerate the operation
 	 */
@@ -140,6 +243,16 @@ public class IntArrayAsIntegerList extends AbstractList<Integer> implements Seri
 	}
 
 
+	/**
+	 * Sets a value without boxing it
+	 * @param index	index of the value
+	 * @param value	the value
+	 */
+	public void setInt(int index, int value) {
+		data[index] = value;
+	}
+
+
 	@Override
 	public int size() {
 		return size;
@@ -158,16 +271,32 @@ public class IntArrayAsIntegerList extends AbstractList<Integer> implements Seri
 
 
 	/**
-	 * Recursive function. Returns the closest index where the value is found.
+	 * Returns the index of the closest value (the greatest one when the value is at the same distance of two values).
+	 * For many searches in a list that does not change anymore, see {@link IntIndex}.
 	 * @param value	value
-	 * @return the closest index where the value is found.
+	 * @return the closest index where the value is found, -1 if the list is empty.
 	 */
 	public int getClosestIndex (int value) {
 		if (size == 0) {
 			return -1;
 		}
 
-		int indexFound = getIndex(value);
+		// index of the first value greater than or equal to the value
+		int indexFound = 0;
+		int length = size;
+		while (length > 0) {
+			int half = length >>> 1;
+			if (data[indexFound + half] < value) {
+				indexFound += half + 1;
+				length -= half + 1;
+			} else {
+				length = half;
+			}
+		}
+
+		if (indexFound == size) {
+			return size - 1;
+		}
 
 		if ((indexFound == 0) || (data[indexFound] == value)) {
 			return indexFound;
@@ -176,12 +305,8 @@ public class IntArrayAsIntegerList extends AbstractList<Integer> implements Seri
 		int foundDiff = data[indexFound] - value;
 		int previousDiff = value - data[indexFound - 1];
 
-		if (foundDiff < previousDiff) {
-			return indexFound;
-		}
-
 		if (previousDiff < foundDiff) {
-			return previousDiff;
+			return indexFound - 1;
 		}
 
 		return indexFound;
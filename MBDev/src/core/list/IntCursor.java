@@ -0,0 +1,155 @@
+/*******************************************************************************
+ * Montpellier Biology Developpment
+ * This project aims to create a tool to process and analyse data of a project in the field of Biology.
+ * Copyright (C) 2012, Nicolas Fourel
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Authors:
+ * 	Nicolas Fourel <nicolas.fourel@live.fr>
+ * 	Romain Desprat <rdesprat@gmail.com>
+ ******************************************************************************/
+package core.list;
+
+
+/**
+ * A cursor over sorted int values answering ceiling and nearest queries close to the previous one.
+ * The cursor keeps the index found by the last search: the next search gallops from it (1, 2, 4... values away, forward or backward)
+ * then ends with a binary search in the last gap. Searching values in increasing order is then a single pass over the values.
+ * The values are not copied: they must not be modified while the cursor is used.
+ * @author Nicolas Fourel
+ * @version 0.1
+ */
+public class IntCursor {
+
+	private final int[] values;		// The values in the sorted order.
+	private final int size;			// The number of values.
+	private int index;				// The index found by the last search.
+	private int lastValue;			// The last value searched.
+	private boolean isStarted;		// Says if a value has been searched.
+	private boolean isMonotone;		// Says if every value searched is greater than or equal to the previous one.
+
+
+	/**
+	 * Constructor of {@link IntCursor}
+	 * @param values	sorted values (the array is not copied)
+	 * @param size		the number of values of the array to search
+	 */
+	public IntCursor (int[] values, int size) {
+		this.values = values;
+		this.size = size;
+		index = 0;
+		lastValue = Integer.MIN_VALUE;
+		isStarted = false;
+		isMonotone = true;
+	}
+
+
+	/**
+	 * @return the number of values
+	 */
+	public int size () {
+		return size;
+	}
+
+
+	/**
+	 * @return true if a value has been searched, false otherwise
+	 */
+	public boolean isStarted () {
+		return isStarted;
+	}
+
+
+	/**
+	 * @return true if every value searched is greater than or equal to the previous one, false otherwise
+	 */
+	public boolean isMonotone () {
+		return isMonotone;
+	}
+
+
+	/**
+	 * @param value a value
+	 * @return the index of the first value greater than or equal to the given value, the size if there is none
+	 */
+	public int getCeilingIndex (int value) {
+		if (value < lastValue) {
+			isMonotone = false;
+		}
+		lastValue = value;
+		isStarted = true;
+
+		if ((index < size) && (values[index] < value)) {
+			// forward: the ceiling is after the current index
+			int start = index + 1;
+			int bound = 1;
+			while (((index + bound) < size) && (values[index + bound] < value)) {
+				start = index + bound + 1;
+				bound <<= 1;
+			}
+			index = search(start, Math.min(index + bound, size), value);
+		} else if ((index > 0) && (values[index - 1] >= value)) {
+			// backward: the ceiling is before the current index
+			int stop = index - 1;
+			int bound = 1;
+			while (((stop - bound) >= 0) && (values[stop - bound] >= value)) {
+				bound <<= 1;
+			}
+			int start = Math.max(0, stop - bound + 1);
+			stop = Math.max(start, stop - (bound >> 1));
+			index = search(start, stop, value);
+		}
+		return index;
+	}
+
+
+	/**
+	 * @param start	the first index to search (included)
+	 * @param stop	the last index to search (excluded), the value at this index (if any) is greater than or equal to the searched value
+	 * @param value	a value
+	 * @return the index of the first value greater than or equal to the given value between the start and the stop
+	 */
+	private int search (int start, int stop, int value) {
+		while (start < stop) {
+			int middle = (start + stop) >>> 1;
+			if (values[middle] < value) {
+				start = middle + 1;
+			} else {
+				stop = middle;
+			}
+		}
+		return start;
+	}
+
+
+	/**
+	 * When the value is at the same distance of two values, the greatest one is chosen (as {@link IntIndex#getNearestIndex(int)}).
+	 * @param value a value
+	 * @return the index of the closest value, -1 if there is no value
+	 */
+	public int getNearestIndex (int value) {
+		int ceiling = getCeilingIndex(value);
+		if (ceiling == size) {
+			return size - 1;
+		}
+		if ((ceiling == 0) || (values[ceiling] == value)) {
+			return ceiling;
+		}
+		if ((value - values[ceiling - 1]) < (values[ceiling] - value)) {
+			return ceiling - 1;
+		}
+		return ceiling;
+	}
+}
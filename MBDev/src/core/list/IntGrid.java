@@ -0,0 +1,154 @@
+/*******************************************************************************
+ * Montpellier Biology Developpment
+ * This project aims to create a tool to process and analyse data of a project in the field of Biology.
+ * Copyright (C) 2012, Nicolas Fourel
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Authors:
+ * 	Nicolas Fourel <nicolas.fourel@live.fr>
+ * 	Romain Desprat <rdesprat@gmail.com>
+ ******************************************************************************/
+package core.list;
+
+
+/**
+ * A read-only index of sorted int values answering ceiling and nearest queries by direct arithmetic, for values spaced at a near-regular step.
+ * The range of the values is cut in buckets of one step, and the table keeps the index of the first value of every bucket:
+ * a search computes the bucket of the value and only scans the few values of this bucket.
+ * Use {@link #build(int[], int)} that only creates the grid when the values are regular enough, and {@link IntIndex} otherwise.
+ * The indexes returned are the indexes of the values in the sorted order.
+ * @author Nicolas Fourel
+ * @version 0.1
+ */
+public class IntGrid {
+
+	/** The maximum number of values a bucket can have for the values to be considered as regularly spaced */
+	public static final int MAX_BUCKET_SIZE = 8;
+
+	private final int size;			// The number of values.
+	private final int[] values;		// The values in the sorted order.
+	private final int origin;		// The first value (start of the first bucket).
+	private final int last;			// The last value.
+	private final int step;			// The length of a bucket.
+	private final int[] buckets;	// The index of the first value of every bucket (the last one is the size).
+
+
+	/**
+	 * Creates a grid if the values are spaced at a near-regular step
+	 * @param values	sorted values (the array is copied)
+	 * @param size		the number of values of the array to index
+	 * @return the grid, null if there are less than two values or if a bucket has more than {@link #MAX_BUCKET_SIZE} values
+	 */
+	public static IntGrid build (int[] values, int size) {
+		if (size < 2) {
+			return null;
+		}
+		long span = (long) values[size - 1] - values[0];
+		int step = (int) Math.max(1, span / (size - 1));
+		int bucketNumber = (int) (span / step) + 1;
+		int[] buckets = new int[bucketNumber + 1];
+		int index = 0;
+		for (int bucket = 0; bucket < bucketNumber; bucket++) {
+			long start = values[0] + ((long) bucket * step);
+			while (values[index] < start) {
+				index++;
+			}
+			buckets[bucket] = index;
+			if ((bucket > 0) && ((index - buckets[bucket - 1]) > MAX_BUCKET_SIZE)) {
+				return null;
+			}
+		}
+		buckets[bucketNumber] = size;
+		if ((size - buckets[bucketNumber - 1]) > MAX_BUCKET_SIZE) {
+			return null;
+		}
+		return new IntGrid(values, size, step, buckets);
+	}
+
+
+	/**
+	 * Constructor of {@link IntGrid}
+	 * @param values	sorted values (the array is copied)
+	 * @param size		the number of values of the array to index
+	 * @param step		the length of a bucket
+	 * @param buckets	the index of the first value of every bucket
+	 */
+	private IntGrid (int[] values, int size, int step, int[] buckets) {
+		this.size = size;
+		this.values = new int[size];
+		System.arraycopy(values, 0, this.values, 0, size);
+		this.origin = values[0];
+		this.last = values[size - 1];
+		this.step = step;
+		this.buckets = buckets;
+	}
+
+
+	/**
+	 * @return the number of values
+	 */
+	public int size () {
+		return size;
+	}
+
+
+	/**
+	 * @return the length of a bucket
+	 */
+	public int getStep () {
+		return step;
+	}
+
+
+	/**
+	 * @param value a value
+	 * @return the index of the first value greater than or equal to the given value, the size if there is none
+	 */
+	public int getCeilingIndex (int value) {
+		if (value <= origin) {
+			return 0;
+		}
+		if (value > last) {
+			return size;
+		}
+		int bucket = (int) (((long) value - origin) / step);
+		int index = buckets[bucket];
+		int stop = buckets[bucket + 1];
+		while ((index < stop) && (values[index] < value)) {
+			index++;
+		}
+		return index;
+	}
+
+
+	/**
+	 * When the value is at the same distance of two values, the greatest one is chosen (as {@link IntIndex#getNearestIndex(int)}).
+	 * @param value a value
+	 * @return the index of the closest value
+	 */
+	public int getNearestIndex (int value) {
+		int index = getCeilingIndex(value);
+		if (index == size) {
+			return size - 1;
+		}
+		if ((index == 0) || (values[index] == value)) {
+			return index;
+		}
+		if ((value - values[index - 1]) < (values[index] - value)) {
+			return index - 1;
+		}
+		return index;
+	}
+}
@@ -0,0 +1,157 @@
+/*******************************************************************************
+ * Montpellier Biology Developpment
+ * This project aims to create a tool to process and analyse data of a project in the field of Biology.
+ * Copyright (C) 2012, Nicolas Fourel
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Authors:
+ * 	Nicolas Fourel <nicolas.fourel@live.fr>
+ * 	Romain Desprat <rdesprat@gmail.com>
+ ******************************************************************************/
+package core.list;
+
+
+/**
+ * A read-only index of sorted int values answering ceiling, floor and nearest queries.
+ * The values are stored in the Eytzinger layout (the breadth-first order of the binary search tree) so that the first steps of every search
+ * read the same few cache lines, and the search itself is an iterative loop without unpredictable branches.
+ * The indexes returned are the indexes of the values in the sorted order.
+ * @author Nicolas Fourel
+ * @version 0.1
+ */
+public class IntIndex {
+
+	private final int size;			// The number of values.
+	private final int[] values;		// The values in the sorted order.
+	private final int[] tree;		// The values in the Eytzinger layout (from index 1).
+	private final int[] ranks;		// The sorted indexes of the values of the tree (ranks[0] is the size: no value found).
+
+
+	/**
+	 * Constructor of {@link IntIndex}
+	 * @param values	sorted values (the array is copied)
+	 * @param size		the number of values of the array to index
+	 */
+	public IntIndex (int[] values, int size) {
+		this.size = size;
+		this.values = new int[size];
+		System.arraycopy(values, 0, this.values, 0, size);
+		tree = new int[size + 1];
+		ranks = new int[size + 1];
+		ranks[0] = size;
+		build();
+	}
+
+
+	/**
+	 * Constructor of {@link IntIndex}
+	 * @param list a sorted list (the values are copied)
+	 */
+	public IntIndex (IntArrayAsIntegerList list) {
+		this(list.toIntArray(), list.size());
+	}
+
+
+	/**
+	 * Fills the tree with an in-order traversal
+	 */
+	private void build () {
+		int rank = 0;
+		int node = 1;
+		// go to the left-most node
+		while ((node << 1) <= size) {
+			node <<= 1;
+		}
+		while (rank < size) {
+			tree[node] = values[rank];
+			ranks[node] = rank;
+			rank++;
+			if (((node << 1) | 1) <= size) {
+				// next node: the left-most node of the right sub-tree
+				node = (node << 1) | 1;
+				while ((node << 1) <= size) {
+					node <<= 1;
+				}
+			} else {
+				// next node: the first ancestor reached from a left child
+				node >>= Integer.numberOfTrailingZeros(~node) + 1;
+			}
+		}
+	}
+
+
+	/**
+	 * @return the number of values
+	 */
+	public int size () {
+		return size;
+	}
+
+
+	/**
+	 * @param index a sorted index
+	 * @return the value at the index
+	 */
+	public int get (int index) {
+		return values[index];
+	}
+
+
+	/**
+	 * @param value a value
+	 * @return the index of the first value greater than or equal to the given value, the size if there is none
+	 */
+	public int getCeilingIndex (int value) {
+		int node = 1;
+		while (node <= size) {
+			node = (node << 1) + (tree[node] < value ? 1 : 0);
+		}
+		// remove the right turns taken after the last left turn, and the last left turn
+		node >>= Integer.numberOfTrailingZeros(~node) + 1;
+		return ranks[node];
+	}
+
+
+	/**
+	 * @param value a value
+	 * @return the index of the last value lower than or equal to the given value, -1 if there is none
+	 */
+	public int getFloorIndex (int value) {
+		if (value == Integer.MAX_VALUE) {
+			return size - 1;
+		}
+		return getCeilingIndex(value + 1) - 1;
+	}
+
+
+	/**
+	 * When the value is at the same distance of two values, the greatest one is chosen.
+	 * @param value a value
+	 * @return the index of the closest value, -1 if the index is empty
+	 */
+	public int getNearestIndex (int value) {
+		int index = getCeilingIndex(value);
+		if (index == size) {
+			return size - 1;
+		}
+		if ((index == 0) || (values[index] == value)) {
+			return index;
+		}
+		if ((value - values[index - 1]) < (values[index] - value)) {
+			return index - 1;
+		}
+		return index;
+	}
+}
@@ -0,0 +1,247 @@
+/*******************************************************************************
+ * Montpellier Biology Developpment
+ * This project aims to create a tool to process and analyse data of a project in the field of Biology.
+ * Copyright (C) 2012, Nicolas Fourel
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Authors:
+ * 	Nicolas Fourel <nicolas.fourel@live.fr>
+ * 	Romain Desprat <rdesprat@gmail.com>
+ ******************************************************************************/
+package core.list;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+
+/**
+ * The timing values of the chromosomes, kept in primitive arrays sorted by position.
+ * The chromosomes are given an index when they are added, the values are then added and searched using this index.
+ * The index is frozen with {@link #build()} before searching the closest values:
+ * the positions of a chromosome sampled at a near-regular step are searched in constant time with an {@link IntGrid}, the other ones with an {@link IntIndex}.
+ * @author Nicolas Fourel
+ * @version 0.1
+ */
+public class TimingIndex {
+
+	private final Map<String, Integer> chromosomeIndexes;	// The indexes of the chromosomes.
+	private int chromosomeNumber;							// The number of chromosomes.
+	private int[][] positions;								// The positions, by chromosome index.
+	private double[][] values;								// The timing values, by chromosome index.
+	private int[] sizes;									// The number of values, by chromosome index.
+	private IntIndex[] indexes;								// The indexes of the positions, by chromosome index (null until built).
+	private IntGrid[] grids;								// The grids of the positions, by chromosome index (null if the positions are not regularly spaced).
+
+
+	/**
+	 * Constructor of {@link TimingIndex}
+	 */
+	public TimingIndex () {
+		chromosomeIndexes = new HashMap<>();
+		chromosomeNumber = 0;
+		positions = new int[0][];
+		values = new double[0][];
+		sizes = new int[0];
+		indexes = null;
+		grids = null;
+	}
+
+
+	/**
+	 * Adds a chromosome if it is not in the index yet
+	 * @param chromosome a chromosome name
+	 * @return the index of the chromosome
+	 */
+	public int addChromosome (String chromosome) {
+		Integer index = chromosomeIndexes.get(chromosome);
+		if (index == null) {
+			index = chromosomeNumber;
+			chromosomeNumber++;
+			positions = Arrays.copyOf(positions, chromosomeNumber);
+			values = Arrays.copyOf(values, chromosomeNumber);
+			sizes = Arrays.copyOf(sizes, chromosomeNumber);
+			positions[index] = new int[1024];
+			values[index] = new double[1024];
+			chromosomeIndexes.put(chromosome, index);
+		}
+		return index;
+	}
+
+
+	/**
+	 * Adds a timing value
+	 * @param chromosomeIndex	the index of the chromosome (see {@link #addChromosome(String)})
+	 * @param position			the position
+	 * @param value				the timing value
+	 */
+	public void add (int chromosomeIndex, int position, double value) {
+		int size = sizes[chromosomeIndex];
+		if (size == positions[chromosomeIndex].length) {
+			positions[chromosomeIndex] = Arrays.copyOf(positions[chromosomeIndex], size * 2);
+			values[chromosomeIndex] = Arrays.copyOf(values[chromosomeIndex], size * 2);
+		}
+		positions[chromosomeIndex][size] = position;
+		values[chromosomeIndex][size] = value;
+		sizes[chromosomeIndex] = size + 1;
+	}
+
+
+	/**
+	 * Freezes the index: sorts the values of every chromosome by position (values with the same position keep their order) and indexes their positions
+	 */
+	public void build () {
+		indexes = new IntIndex[chromosomeNumber];
+		grids = new IntGrid[chromosomeNumber];
+		for (int chromosomeIndex = 0; chromosomeIndex < chromosomeNumber; chromosomeIndex++) {
+			int size = sizes[chromosomeIndex];
+			positions[chromosomeIndex] = Arrays.copyOf(positions[chromosomeIndex], size);
+			values[chromosomeIndex] = Arrays.copyOf(values[chromosomeIndex], size);
+			if (!isSorted(positions[chromosomeIndex])) {
+				sort(chromosomeIndex);
+			}
+			grids[chromosomeIndex] = IntGrid.build(positions[chromosomeIndex], size);
+			if (grids[chromosomeIndex] == null) {
+				indexes[chromosomeIndex] = new IntIndex(positions[chromosomeIndex], size);
+			}
+		}
+	}
+
+
+	/**
+	 * @param array an array
+	 * @return true if the array is sorted, false otherwise
+	 */
+	private boolean isSorted (int[] array) {
+		for (int i = 1; i < array.length; i++) {
+			if (array[i] < array[i - 1]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+
+	/**
+	 * Sorts the values of a chromosome by position
+	 * @param chromosomeIndex the index of the chromosome
+	 */
+	private void sort (int chromosomeIndex) {
+		int[] currentPositions = positions[chromosomeIndex];
+		double[] currentValues = values[chromosomeIndex];
+		int size = currentPositions.length;
+		// the index of a value is in the lower bits: the keys are sorted by position, then by index for the same position
+		long[] keys = new long[size];
+		for (int i = 0; i < size; i++) {
+			keys[i] = ((long) currentPositions[i] << 32) | i;
+		}
+		Arrays.sort(keys);
+		int[] sortedPositions = new int[size];
+		double[] sortedValues = new double[size];
+		for (int i = 0; i < size; i++) {
+			int order = (int) keys[i];
+			sortedPositions[i] = currentPositions[order];
+			sortedValues[i] = currentValues[order];
+		}
+		positions[chromosomeIndex] = sortedPositions;
+		values[chromosomeIndex] = sortedValues;
+	}
+
+
+	/**
+	 * @param chromosome a chromosome name
+	 * @return the index of the chromosome, -1 if the chromosome has no timing value
+	 */
+	public int getChromosomeIndex (String chromosome) {
+		Integer index = chromosomeIndexes.get(chromosome);
+		if (index == null) {
+			return -1;
+		}
+		return index;
+	}
+
+
+	/**
+	 * @return the number of chromosomes
+	 */
+	public int getChromosomeNumber () {
+		return chromosomeNumber;
+	}
+
+
+	/**
+	 * @param chromosomeIndex the index of a chromosome
+	 * @return the number of timing values of the chromosome
+	 */
+	public int size (int chromosomeIndex) {
+		return sizes[chromosomeIndex];
+	}
+
+
+	/**
+	 * @param chromosomeIndex	the index of a chromosome
+	 * @param index				the index of a value of the chromosome (sorted by position)
+	 * @return the position of the value
+	 */
+	public int getPosition (int chromosomeIndex, int index) {
+		return positions[chromosomeIndex][index];
+	}
+
+
+	/**
+	 * @param chromosomeIndex	the index of a chromosome
+	 * @param index				the index of a value of the chromosome (sorted by position)
+	 * @return the timing value
+	 */
+	public double getValue (int chromosomeIndex, int index) {
+		return values[chromosomeIndex][index];
+	}
+
+
+	/**
+	 * The index must have been built.
+	 * @param chromosomeIndex the index of a chromosome
+	 * @return a new cursor over the positions of the chromosome (see {@link #getValue(int, int)} to get the value of an index found)
+	 */
+	public IntCursor newCursor (int chromosomeIndex) {
+		return new IntCursor(positions[chromosomeIndex], sizes[chromosomeIndex]);
+	}
+
+
+	/**
+	 * The index must have been built.
+	 * @param chromosomeIndex the index of a chromosome
+	 * @return true if the positions of the chromosome are searched with a grid, false otherwise
+	 */
+	public boolean isRegular (int chromosomeIndex) {
+		return grids[chromosomeIndex] != null;
+	}
+
+
+	/**
+	 * The index must have been built.
+	 * When the position is at the same distance of two positions, the value of the greatest one is chosen.
+	 * @param chromosomeIndex	the index of a chromosome having timing values
+	 * @param position			a position
+	 * @return the timing value of the closest position
+	 */
+	public double getClosestValue (int chromosomeIndex, int position) {
+		IntGrid grid = grids[chromosomeIndex];
+		if (grid != null) {
+			return values[chromosomeIndex][grid.getNearestIndex(position)];
+		}
+		return values[chromosomeIndex][indexes[chromosomeIndex].getNearestIndex(position)];
+	}
+}
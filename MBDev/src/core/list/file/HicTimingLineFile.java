@@ -1,22 +1,42 @@
 package core.list.file;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+
 import core.fileLine.HicTimingLine;
 import core.list.ByteArrayAsChromosomeList;
-import core.list.FloatArrayAsTimingList;
+import core.list.DoubleArrayAsTimingList;
 import core.list.IntArrayAsIntegerList;
 
 /**
+ * A {@link HicTimingLineFile} keeps the lines of a HiC/timing file in columns.
+ * The columns can be saved to a binary file (see {@link #EXTENSION}) and loaded back without parsing any line:
+ * the file starts with a header (magic number, format version, number of rows) followed by every column stored as a raw big-endian array.
  * @author Nicolas Fourel
  * @version 0.1
  */
 public class HicTimingLineFile {
 
-	private final ByteArrayAsChromosomeList firstChromosome;
-	private final IntArrayAsIntegerList firstPosition;
-	private final FloatArrayAsTimingList firstTiming;
-	private final ByteArrayAsChromosomeList secondChromosome;
-	private final IntArrayAsIntegerList secondPosition;
-	private final FloatArrayAsTimingList secondTiming;
+	public static final String EXTENSION = "hict";		// Extension of the binary files.
+
+	private static final int MAGIC_NUMBER = 0x48494354;	// "HICT", first bytes of the binary files.
+	private static final int FORMAT_VERSION = 1;			// Version of the binary format.
+	private static final int HEADER_LENGTH = 12;			// Length of the header of the binary files (in bytes).
+	private static final int WRITE_BUFFER_SIZE = 1024 * 1024;	// Size of the buffer used to save the columns (in bytes).
+
+	private final ByteArrayAsChromosomeList firstChromosome;	// The first chromosomes.
+	private final IntArrayAsIntegerList firstPosition;			// The first positions.
+	private final DoubleArrayAsTimingList firstTiming;			// The first timing values.
+	private final ByteArrayAsChromosomeList secondChromosome;	// The second chromosomes.
+	private final IntArrayAsIntegerList secondPosition;			// The second positions.
+	private final DoubleArrayAsTimingList secondTiming;			// The second timing values.
+	private final IntArrayAsIntegerList lineNumber;			// The numbers of the lines in the original text file.
 
 
 	/**
@@ -25,38 +45,264 @@ public class HicTimingLineFile {
 	public HicTimingLineFile () {
 		firstChromosome = new ByteArrayAsChromosomeList();
 		firstPosition = new IntArrayAsIntegerList();
-		firstTiming = new FloatArrayAsTimingList();
+		firstTiming = new DoubleArrayAsTimingList();
 		secondChromosome = new ByteArrayAsChromosomeList();
 		secondPosition = new IntArrayAsIntegerList();
-		secondTiming = new FloatArrayAsTimingList();
+		secondTiming = new DoubleArrayAsTimingList();
+		lineNumber = new IntArrayAsIntegerList();
+	}
+
+
+	/**
+	 * Constructor of {@link HicTimingLineFile} using existing columns
+	 */
+	private HicTimingLineFile (ByteArrayAsChromosomeList firstChromosome, IntArrayAsIntegerList firstPosition, DoubleArrayAsTimingList firstTiming,
+			ByteArrayAsChromosomeList secondChromosome, IntArrayAsIntegerList secondPosition, DoubleArrayAsTimingList secondTiming, IntArrayAsIntegerList lineNumber) {
+		this.firstChromosome = firstChromosome;
+		this.firstPosition = firstPosition;
+		this.firstTiming = firstTiming;
+		this.secondChromosome = secondChromosome;
+		this.secondPosition = secondPosition;
+		this.secondTiming = secondTiming;
+		this.lineNumber = lineNumber;
 	}
 
 
+	/**
+	 * Adds a line, its line number being its rank in the list
+	 * @param line a valid HiC/timing line
+	 */
 	public void add (HicTimingLine line) {
+		add(line, getSize() + 1);
+	}
+
+
+	/**
+	 * Adds a line
+	 * @param line			a valid HiC/timing line
+	 * @param lineNumber	the number of the line in its file
+	 */
+	public void add (HicTimingLine line, int lineNumber) {
 		firstChromosome.add(line.getFirstChromosome());
-		firstPosition.add(line.getFirstPosition());
+		firstPosition.addInt(line.getFirstPositionInt());
 		firstTiming.add(line.getFirstTiming());
 		secondChromosome.add(line.getSecondChromosome());
-		secondPosition.add(line.getSecondPosition());
+		secondPosition.addInt(line.getSecondPositionInt());
 		secondTiming.add(line.getSecondTiming());
+		this.lineNumber.addInt(lineNumber);
 	}
 
 
+	/**
+	 * @return the number of lines
+	 */
 	public int getSize () {
 		return firstChromosome.size();
 	}
 
 
-	public HicTimingLine getLine (int index) {
-		String[] elementss = new String[6];
-		elementss[0] = firstChromosome.get(index);
-		elementss[1] = "" + firstPosition.get(index);
-		elementss[2] = "" + firstTiming.get(index);
-		elementss[3] = secondChromosome.get(index);
-		elementss[4] = "" + secondPosition.get(index);
-		elementss[5] = "" + secondTiming.get(index);
-		HicTimingLine line = new HicTimingLine();
-		line.initializeFromArray(elementss);
-		return line;
+	/**
+	 * @return the first chromosomes
+	 */
+	public ByteArrayAsChromosomeList getFirstChromosome () {
+		return firstChromosome;
+	}
+
+
+	/**
+	 * @return the first positions
+	 */
+	public IntArrayAsIntegerList getFirstPosition () {
+		return firstPosition;
+	}
+
+
+	/**
+	 * @return the first timing values
+	 */
+	public DoubleArrayAsTimingList getFirstTiming () {
+		return firstTiming;
+	}
+
+
+	/**
+	 * @return the second chromosomes
+	 */
+	public ByteArrayAsChromosomeList getSecondChromosome () {
+		return secondChromosome;
+	}
+
+
+	/**
+	 * @return the second positions
+	 */
+	public IntArrayAsIntegerList getSecondPosition () {
+		return secondPosition;
+	}
+
+
+	/**
+	 * @return the second timing values
+	 */
+	public DoubleArrayAsTimingList getSecondTiming () {
+		return secondTiming;
+	}
+
+
+	/**
+	 * @param index index of a line
+	 * @return the number of the line in the original text file
+	 */
+	public int getLineNumber (int index) {
+		return lineNumber.getInt(index);
+	}
+
+
+	/**
+	 * Saves the columns to a binary file
+	 * @param file the binary file
+	 * @throws IOException
+	 */
+	public void save (File file) throws IOException {
+		int size = getSize();
+		FileOutputStream out = new FileOutputStream(file);
+		try {
+			FileChannel channel = out.getChannel();
+			ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+			buffer.putInt(MAGIC_NUMBER);
+			buffer.putInt(FORMAT_VERSION);
+			buffer.putInt(size);
+
+			for (int i = 0; i < size; i++) {
+				buffer = ensureRemaining(channel, buffer, 1);
+				buffer.put(firstChromosome.getCode(i));
+			}
+			for (int i = 0; i < size; i++) {
+				buffer = ensureRemaining(channel, buffer, 4);
+				buffer.putInt(firstPosition.getInt(i));
+			}
+			for (int i = 0; i < size; i++) {
+				buffer = ensureRemaining(channel, buffer, 8);
+				buffer.putDouble(firstTiming.getDouble(i));
+			}
+			for (int i = 0; i < size; i++) {
+				buffer = ensureRemaining(channel, buffer, 1);
+				buffer.put(secondChromosome.getCode(i));
+			}
+			for (int i = 0; i < size; i++) {
+				buffer = ensureRemaining(channel, buffer, 4);
+				buffer.putInt(secondPosition.getInt(i));
+			}
+			for (int i = 0; i < size; i++) {
+				buffer = ensureRemaining(channel, buffer, 8);
+				buffer.putDouble(secondTiming.getDouble(i));
+			}
+			for (int i = 0; i < size; i++) {
+				buffer = ensureRemaining(channel, buffer, 4);
+				buffer.putInt(lineNumber.getInt(i));
+			}
+			flush(channel, buffer);
+		} finally {
+			out.close();
+		}
+	}
+
+
+	/**
+	 * Writes the buffer to the channel if it cannot receive a number of bytes
+	 * @param channel	the channel of the file
+	 * @param buffer	the buffer
+	 * @param length	a number of bytes
+	 * @return the buffer, ready to receive the bytes
+	 * @throws IOException
+	 */
+	private static ByteBuffer ensureRemaining (FileChannel channel, ByteBuffer buffer, int length) throws IOException {
+		if (buffer.remaining() < length) {
+			flush(channel, buffer);
+		}
+		return buffer;
+	}
+
+
+	/**
+	 * Writes the content of the buffer to the channel and clears the buffer
+	 * @param channel	the channel of the file
+	 * @param buffer	the buffer
+	 * @throws IOException
+	 */
+	private static void flush (FileChannel channel, ByteBuffer buffer) throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+
+	/**
+	 * Loads a binary file saved by {@link #save(File)}.
+	 * Every column is mapped in memory and copied at once to its array.
+	 * @param file the binary file
+	 * @return the HiC/timing lines
+	 * @throws IOException if the file is not a valid binary file
+	 */
+	public static HicTimingLineFile load (File file) throws IOException {
+		RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+		try {
+			FileChannel channel = randomAccessFile.getChannel();
+			if (channel.size() < HEADER_LENGTH) {
+				throw new IOException("The file is not a valid ." + EXTENSION + " file: " + file);
+			}
+			ByteBuffer header = channel.map(MapMode.READ_ONLY, 0, HEADER_LENGTH);
+			if ((header.getInt() != MAGIC_NUMBER) || (header.getInt() != FORMAT_VERSION)) {
+				throw new IOException("The file is not a valid ." + EXTENSION + " file (or its version is not supported): " + file);
+			}
+			int size = header.getInt();
+			if (channel.size() != (HEADER_LENGTH + (size * 30L))) {
+				throw new IOException("The file is truncated: " + file);
+			}
+
+			long position = HEADER_LENGTH;
+			byte[] firstChromosome = new byte[size];
+			mapColumn(channel, position, size).get(firstChromosome);
+			position += size;
+			int[] firstPosition = new int[size];
+			mapColumn(channel, position, size * 4L).asIntBuffer().get(firstPosition);
+			position += size * 4L;
+			double[] firstTiming = new double[size];
+			mapColumn(channel, position, size * 8L).asDoubleBuffer().get(firstTiming);
+			position += size * 8L;
+			byte[] secondChromosome = new byte[size];
+			mapColumn(channel, position, size).get(secondChromosome);
+			position += size;
+			int[] secondPosition = new int[size];
+			mapColumn(channel, position, size * 4L).asIntBuffer().get(secondPosition);
+			position += size * 4L;
+			double[] secondTiming = new double[size];
+			mapColumn(channel, position, size * 8L).asDoubleBuffer().get(secondTiming);
+			position += size * 8L;
+			int[] lineNumber = new int[size];
+			mapColumn(channel, position, size * 4L).asIntBuffer().get(lineNumber);
+
+			return new HicTimingLineFile(new ByteArrayAsChromosomeList(firstChromosome, size), new IntArrayAsIntegerList(firstPosition, size), new DoubleArrayAsTimingList(firstTiming, size),
+					new ByteArrayAsChromosomeList(secondChromosome, size), new IntArrayAsIntegerList(secondPosition, size), new DoubleArrayAsTimingList(secondTiming, size), new IntArrayAsIntegerList(lineNumber, size));
+		} finally {
+			randomAccessFile.close();
+		}
+	}
+
+
+	/**
+	 * @param channel	the channel of the file
+	 * @param position	the position of the column in the file
+	 * @param length	the length of the column (in bytes)
+	 * @return the column mapped in memory
+	 * @throws IOException
+	 */
+	private static MappedByteBuffer mapColumn (FileChannel channel, long position, long length) throws IOException {
+		if (length > Integer.MAX_VALUE) {
+			throw new IOException("The column is too large to be mapped (" + length + " bytes).");
+		}
+		return channel.map(MapMode.READ_ONLY, position, length);
 	}
 }
@@ -1,22 +1,48 @@
 package core.list.file;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import core.fileLine.ORILine;
+import core.fileLine.RecordFormatter;
 import core.list.ByteArrayAsChromosomeList;
 import core.list.IntArrayAsIntegerList;
 
 /**
+ * A {@link ORILineFile} keeps the ORI of a chromosome in columns.
+ * The names are dictionary encoded: every distinct name is stored once in a heap of bytes and each ORI only keeps the index of its name.
+ * A list of {@link ORILineFile} can be saved to a binary file (see {@link #EXTENSION}) and loaded back without parsing any line.
  * @author Nicolas Fourel
  * @version 0.1
  */
 public class ORILineFile {
 
-	private final ByteArrayAsChromosomeList chromosome;
-	private final IntArrayAsIntegerList startPosition;
-	private final IntArrayAsIntegerList stopPosition;
-	private final List<String> names;
+	public static final String EXTENSION = "orib";		// Extension of the binary files.
+
+	private static final int MAGIC_NUMBER = 0x4F524942;	// "ORIB", first bytes of the binary files.
+	private static final int FORMAT_VERSION = 1;			// Version of the binary format.
+	private static final Charset CHARSET = Charset.forName("UTF-8");	// Charset of the names.
+
+	private final ByteArrayAsChromosomeList chromosome;	// The chromosomes.
+	private final IntArrayAsIntegerList startPosition;	// The start positions.
+	private final IntArrayAsIntegerList stopPosition;		// The stop positions.
+	private final IntArrayAsIntegerList nameIndex;		// The indexes of the names in the dictionary.
+	private final IntArrayAsIntegerList nameOffset;		// The offsets of the names of the dictionary in the heap (one more than the number of names).
+	private byte[] nameHeap;								// The heap of names.
+	private int nameHeapLength;								// The length of the heap of names.
+	private Map<String, Integer> dictionary;				// The indexes of the names already in the dictionary (null when loaded from a binary file).
 
 
 	/**
@@ -26,15 +52,64 @@ public class ORILineFile {
 		chromosome = new ByteArrayAsChromosomeList();
 		startPosition = new IntArrayAsIntegerList();
 		stopPosition = new IntArrayAsIntegerList();
-		names = new ArrayList<>();
+		nameIndex = new IntArrayAsIntegerList();
+		nameOffset = new IntArrayAsIntegerList();
+		nameOffset.addInt(0);
+		nameHeap = new byte[1024];
+		nameHeapLength = 0;
+		dictionary = new HashMap<>();
+	}
+
+
+	/**
+	 * Constructor of {@link ORILineFile} using existing columns
+	 */
+	private ORILineFile (ByteArrayAsChromosomeList chromosome, IntArrayAsIntegerList startPosition, IntArrayAsIntegerList stopPosition,
+			IntArrayAsIntegerList nameIndex, IntArrayAsIntegerList nameOffset, byte[] nameHeap) {
+		this.chromosome = chromosome;
+		this.startPosition = startPosition;
+		this.stopPosition = stopPosition;
+		this.nameIndex = nameIndex;
+		this.nameOffset = nameOffset;
+		this.nameHeap = nameHeap;
+		this.nameHeapLength = nameHeap.length;
+		this.dictionary = null;
 	}
 
 
 	public void add (ORILine line) {
 		chromosome.add(line.getChromosome());
-		startPosition.add(line.getStartPosition());
-		stopPosition.add(line.getStopPosition());
-		names.add(line.getElements()[3]);
+		startPosition.addInt(line.getStartPositionInt());
+		stopPosition.addInt(line.getStopPositionInt());
+		nameIndex.addInt(getNameIndex(line.getElements()[3]));
+	}
+
+
+	/**
+	 * Looks for a name in the dictionary, adds it if it is not there yet
+	 * @param name a name
+	 * @return the index of the name in the dictionary
+	 */
+	private int getNameIndex (String name) {
+		if (dictionary == null) {
+			dictionary = new HashMap<>();
+			for (int i = 0; i < (nameOffset.size() - 1); i++) {
+				dictionary.put(getDictionaryName(i), i);
+			}
+		}
+		Integer index = dictionary.get(name);
+		if (index == null) {
+			byte[] bytes = name.getBytes(CHARSET);
+			if ((nameHeapLength + bytes.length) > nameHeap.length) {
+				nameHeap = Arrays.copyOf(nameHeap, Math.max(nameHeap.length * 2, nameHeapLength + bytes.length));
+			}
+			System.arraycopy(bytes, 0, nameHeap, nameHeapLength, bytes.length);
+			nameHeapLength += bytes.length;
+			index = nameOffset.size() - 1;
+			nameOffset.addInt(nameHeapLength);
+			dictionary.put(name, index);
+		}
+		return index;
 	}
 
 
@@ -48,9 +123,252 @@ public class ORILineFile {
 		elements[0] = chromosome.get(index);
 		elements[1] = "" + startPosition.get(index);
 		elements[2] = "" + stopPosition.get(index);
-		elements[3] = names.get(index);
+		elements[3] = getName(index);
 		ORILine line = new ORILine();
 		line.initializeFromArray(elements);
 		return line;
 	}
+
+
+	/**
+	 * @param index index of an ORI
+	 * @return the chromosome of the ORI
+	 */
+	public String getChromosome (int index) {
+		return chromosome.get(index);
+	}
+
+
+	/**
+	 * @param index index of an ORI
+	 * @return the start position of the ORI
+	 */
+	public int getStartPosition (int index) {
+		return startPosition.getInt(index);
+	}
+
+
+	/**
+	 * @param index index of an ORI
+	 * @return the stop position of the ORI
+	 */
+	public int getStopPosition (int index) {
+		return stopPosition.getInt(index);
+	}
+
+
+	/**
+	 * @param index index of an ORI
+	 * @return the name of the ORI
+	 */
+	public String getName (int index) {
+		return getDictionaryName(nameIndex.getInt(index));
+	}
+
+
+	/**
+	 * Appends the name of an ORI to a formatter without creating any string
+	 * @param index		index of an ORI
+	 * @param formatter	the formatter
+	 */
+	public void appendName (int index, RecordFormatter formatter) {
+		int dictionaryIndex = nameIndex.getInt(index);
+		formatter.append(nameHeap, nameOffset.getInt(dictionaryIndex), nameOffset.getInt(dictionaryIndex + 1));
+	}
+
+
+	/**
+	 * @param dictionaryIndex index of a name in the dictionary
+	 * @return the name
+	 */
+	private String getDictionaryName (int dictionaryIndex) {
+		int start = nameOffset.getInt(dictionaryIndex);
+		int stop = nameOffset.getInt(dictionaryIndex + 1);
+		return new String(nameHeap, start, stop - start, CHARSET);
+	}
+
+
+	/**
+	 * Sorts the ORI according to their start and stop positions (ORI with the same positions keep their order)
+	 */
+	public void sort () {
+		int size = getSize();
+		Integer[] order = new Integer[size];
+		for (int i = 0; i < size; i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer o1, Integer o2) {
+				int result = Integer.compare(startPosition.getInt(o1), startPosition.getInt(o2));
+				if (result == 0) {
+					result = Integer.compare(stopPosition.getInt(o1), stopPosition.getInt(o2));
+				}
+				return result;
+			}
+		});
+
+		byte[] chromosomes = new byte[size];
+		int[] starts = new int[size];
+		int[] stops = new int[size];
+		int[] names = new int[size];
+		for (int i = 0; i < size; i++) {
+			int index = order[i];
+			chromosomes[i] = chromosome.getCode(index);
+			starts[i] = startPosition.getInt(index);
+			stops[i] = stopPosition.getInt(index);
+			names[i] = nameIndex.getInt(index);
+		}
+		for (int i = 0; i < size; i++) {
+			chromosome.setCode(i, chromosomes[i]);
+			startPosition.setInt(i, starts[i]);
+			stopPosition.setInt(i, stops[i]);
+			nameIndex.setInt(i, names[i]);
+		}
+	}
+
+
+	/**
+	 * Saves a list of {@link ORILineFile} to a binary file.
+	 * The file starts with a header (magic number, format version, number of lists).
+	 * Each list follows with its number of ORI, its number of names and the length of its heap of names,
+	 * then its columns stored as raw big-endian arrays (chromosomes, start positions, stop positions, name indexes, name offsets, heap of names).
+	 * @param list	the list of {@link ORILineFile}
+	 * @param file	the binary file
+	 * @throws IOException
+	 */
+	public static void save (List<ORILineFile> list, File file) throws IOException {
+		long length = 12;
+		for (ORILineFile current: list) {
+			length += current.getBinaryLength();
+		}
+		if (length > Integer.MAX_VALUE) {
+			throw new IOException("The ORI are too many to be saved (" + length + " bytes).");
+		}
+
+		ByteBuffer buffer = ByteBuffer.allocate((int) length);
+		buffer.putInt(MAGIC_NUMBER);
+		buffer.putInt(FORMAT_VERSION);
+		buffer.putInt(list.size());
+		for (ORILineFile current: list) {
+			current.write(buffer);
+		}
+		buffer.flip();
+
+		FileOutputStream out = new FileOutputStream(file);
+		try {
+			FileChannel channel = out.getChannel();
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+		} finally {
+			out.close();
+		}
+	}
+
+
+	/**
+	 * @return the length of the list in a binary file (in bytes)
+	 */
+	private long getBinaryLength () {
+		int size = getSize();
+		return 12 + size + (size * 12L) + (nameOffset.size() * 4L) + nameHeapLength;
+	}
+
+
+	/**
+	 * Writes the list to a buffer
+	 * @param buffer the buffer
+	 */
+	private void write (ByteBuffer buffer) {
+		int size = getSize();
+		int nameNumber = nameOffset.size() - 1;
+		buffer.putInt(size);
+		buffer.putInt(nameNumber);
+		buffer.putInt(nameHeapLength);
+		for (int i = 0; i < size; i++) {
+			buffer.put(chromosome.getCode(i));
+		}
+		for (int i = 0; i < size; i++) {
+			buffer.putInt(startPosition.getInt(i));
+		}
+		for (int i = 0; i < size; i++) {
+			buffer.putInt(stopPosition.getInt(i));
+		}
+		for (int i = 0; i < size; i++) {
+			buffer.putInt(nameIndex.getInt(i));
+		}
+		for (int i = 0; i <= nameNumber; i++) {
+			buffer.putInt(nameOffset.getInt(i));
+		}
+		buffer.put(nameHeap, 0, nameHeapLength);
+	}
+
+
+	/**
+	 * Loads a binary file saved by {@link #save(List, File)}.
+	 * The file is mapped in memory and every column is copied at once to its array.
+	 * @param file the binary file
+	 * @return the list of {@link ORILineFile}
+	 * @throws IOException if the file is not a valid binary file
+	 */
+	public static List<ORILineFile> load (File file) throws IOException {
+		RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+		try {
+			FileChannel channel = randomAccessFile.getChannel();
+			if ((channel.size() < 12) || (channel.size() > Integer.MAX_VALUE)) {
+				throw new IOException("The file is not a valid ." + EXTENSION + " file: " + file);
+			}
+			ByteBuffer buffer = channel.map(MapMode.READ_ONLY, 0, channel.size());
+			if ((buffer.getInt() != MAGIC_NUMBER) || (buffer.getInt() != FORMAT_VERSION)) {
+				throw new IOException("The file is not a valid ." + EXTENSION + " file (or its version is not supported): " + file);
+			}
+			int listNumber = buffer.getInt();
+			List<ORILineFile> list = new ArrayList<>();
+			for (int i = 0; i < listNumber; i++) {
+				list.add(read(buffer));
+			}
+			return list;
+		} catch (RuntimeException e) {
+			throw new IOException("The file is truncated: " + file, e);
+		} finally {
+			randomAccessFile.close();
+		}
+	}
+
+
+	/**
+	 * Reads a list from a buffer
+	 * @param buffer the buffer
+	 * @return the list
+	 */
+	private static ORILineFile read (ByteBuffer buffer) {
+		int size = buffer.getInt();
+		int nameNumber = buffer.getInt();
+		int heapLength = buffer.getInt();
+		byte[] chromosomes = new byte[size];
+		buffer.get(chromosomes);
+		int[] starts = readInts(buffer, size);
+		int[] stops = readInts(buffer, size);
+		int[] names = readInts(buffer, size);
+		int[] offsets = readInts(buffer, nameNumber + 1);
+		byte[] heap = new byte[heapLength];
+		buffer.get(heap);
+		return new ORILineFile(new ByteArrayAsChromosomeList(chromosomes, size), new IntArrayAsIntegerList(starts, size), new IntArrayAsIntegerList(stops, size),
+				new IntArrayAsIntegerList(names, size), new IntArrayAsIntegerList(offsets, nameNumber + 1), heap);
+	}
+
+
+	/**
+	 * Reads an array of int from a buffer
+	 * @param buffer	the buffer
+	 * @param length	the number of int
+	 * @return the array
+	 */
+	private static int[] readInts (ByteBuffer buffer, int length) {
+		int[] result = new int[length];
+		buffer.asIntBuffer().get(result);
+		buffer.position(buffer.position() + (length * 4));
+		return result;
+	}
 }
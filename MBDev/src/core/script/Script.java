@@ -23,13 +23,16 @@
 package core.script;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.List;
-import java.util.Map;
 
+import core.action.Pipeline;
+import core.action.file.FileExtractor;
 import core.action.hic.ExtractChromosomeRegion;
 import core.action.hic.MergeHiCWithTiming;
 import core.action.hicTiming.CleanHiCTiming;
 import core.action.hicTiming.ExtractWindowsFromHicTiming;
+import core.action.hicTiming.HicTimingListExtractor;
 import core.action.hicTiming.RemoveClosePositionHiCTiming;
 import core.action.hicTiming.RemoveDuplicateHiCTiming;
 import core.action.hicTimingOri.MergeHiCORIToChromosomeMap;
@@ -38,8 +41,10 @@ import core.action.ori.ORIListExtractor;
 import core.action.ori.ORIRenamer;
 import core.action.timing.TimingListExtractor;
 import core.chromosome.ProjectChromosome;
-import core.fileLine.TimingLine;
 import core.list.ChromosomeListOfLists;
+import core.list.HiCORIMap;
+import core.list.TimingIndex;
+import core.list.file.HicTimingLineFile;
 import core.list.file.ORILineFile;
 
 public class Script {
@@ -50,8 +55,9 @@ public class Script {
 	 * @param inputPath		the input file path
 	 * @param outputPath	the output file path
 	 * @param extractOption	inter or intra chromosome (see {@link ExtractChromosomeRegion})
+	 * @return true if the output file has been written, false otherwise
 	 */
-	public static void splitHiC(String inputPath, String outputPath, int extractOption) {
+	public static boolean splitHiC(String inputPath, String outputPath, int extractOption) {
 		// Input file
 		File inputFile = new File(inputPath);
 
@@ -60,7 +66,9 @@ public class Script {
 
 		// Perform the action
 		ExtractChromosomeRegion action = new ExtractChromosomeRegion(inputFile,	outputFile, extractOption);
+		action.setReadingMode(FileExtractor.CHUNK_MODE);
 		action.actionPerformed(null);
+		return action.isSuccessful();
 	}
 
 
@@ -70,21 +78,25 @@ public class Script {
 	 * @param hicInputPath			the input path of the HiC file
 	 * @param hicTimingOutputPath	the output path of the HiC/timing file
 	 * @param extractOption			Desprat or Gilbert (see {@link TimingListExtractor})
+	 * @return true if the output file has been written, false otherwise
 	 */
-	public static void mergeHiCWithFilTiming(String timingInputPath, String hicInputPath, String hicTimingOutputPath, int extractOption) {
+	public static boolean mergeHiCWithFilTiming(String timingInputPath, String hicInputPath, String hicTimingOutputPath, int extractOption) {
 		// Timing action
 		File timingInputFile = new File(timingInputPath);
 		TimingListExtractor action = new TimingListExtractor(timingInputFile, extractOption);
 		action.actionPerformed(null);
 
 		// Get the timing information
-		Map<String, List<TimingLine>> map = action.getMap();
+		TimingIndex index = action.getIndex();
 
 		// HiC Action
 		File hicInputFile = new File(hicInputPath);
 		File hicOutputFile = new File(hicTimingOutputPath);
-		MergeHiCWithTiming hicAction = new MergeHiCWithTiming(hicInputFile, hicOutputFile, map);
+		MergeHiCWithTiming hicAction = new MergeHiCWithTiming(hicInputFile, hicOutputFile, index);
+		hicAction.setReadingMode(FileExtractor.CHUNK_MODE);
+		hicAction.setMode(MergeHiCWithTiming.CURSOR_MODE);
 		hicAction.actionPerformed(null);
+		return action.isSuccessful() && hicAction.isSuccessful();
 	}
 
 
@@ -92,12 +104,15 @@ public class Script {
 	 * Remove duplicated lines in HiC/Timing file
 	 * @param inputPath		the input file path
 	 * @param outputPath	the output file path
+	 * @return true if the output file has been written, false otherwise
 	 */
-	public static void removeHiCTimingDuplicate(String inputPath, String outputPath) {
+	public static boolean removeHiCTimingDuplicate(String inputPath, String outputPath) {
 		File inputFile = new File(inputPath);
 		File outputFile = new File(outputPath);
 		RemoveDuplicateHiCTiming action = new RemoveDuplicateHiCTiming(inputFile, outputFile);
+		action.setReadingMode(FileExtractor.CHUNK_MODE);
 		action.actionPerformed(null);
+		return action.isSuccessful();
 	}
 
 
@@ -105,12 +120,15 @@ public class Script {
 	 * Cleans up a HiC/Timing file (delete useless columns)
 	 * @param inputPath		the input file path
 	 * @param outputPath	the output file path
+	 * @return true if the output file has been written, false otherwise
 	 */
-	public static void cleanUpHiCTimingFile(String inputPath, String outputPath) {
+	public static boolean cleanUpHiCTimingFile(String inputPath, String outputPath) {
 		File inputFile = new File(inputPath);
 		File outputFile = new File(outputPath);
 		CleanHiCTiming action = new CleanHiCTiming(inputFile, outputFile);
+		action.setReadingMode(FileExtractor.CHUNK_MODE);
 		action.actionPerformed(null);
+		return action.isSuccessful();
 	}
 
 
@@ -118,12 +136,160 @@ public class Script {
 	 * Remove HiC/Timing lines where positions are two close (make sens for HiC/Timing intra chromosome files)
 	 * @param inputPath		the input file path
 	 * @param outputPath	the output file path
+	 * @return true if the output file has been written, false otherwise
 	 */
-	public static void removeCloseIntraLines(String inputPath, String outputPath) {
+	public static boolean removeCloseIntraLines(String inputPath, String outputPath) {
 		File inputFile = new File(inputPath);
 		File outputFile = new File(outputPath);
 		RemoveClosePositionHiCTiming action = new RemoveClosePositionHiCTiming(inputFile, outputFile, 100000);
+		action.setReadingMode(FileExtractor.CHUNK_MODE);
 		action.actionPerformed(null);
+		return action.isSuccessful();
+	}
+
+
+	/**
+	 * Extracts the intra chromosome HiC lines, merges them with timing data, removes the duplicates and the lines where positions are too close,
+	 * in a single read of the HiC file (see {@link Pipeline})
+	 * @param timingInputPath		the input path of the timing file
+	 * @param hicInputPath			the input path of the HiC file
+	 * @param outputPath			the output file path
+	 * @param extractOption			Desprat or Gilbert (see {@link TimingListExtractor})
+	 * @param writeIntermediateFiles	true to also write the files of every step (output path + ".intra", ".timing" and ".nodup"), false otherwise
+	 */
+	public static void processIntraHiCWithTiming(String timingInputPath, String hicInputPath, String outputPath, int extractOption, boolean writeIntermediateFiles) {
+		// Timing action
+		File timingInputFile = new File(timingInputPath);
+		TimingListExtractor action = new TimingListExtractor(timingInputFile, extractOption);
+		action.actionPerformed(null);
+		TimingIndex index = action.getIndex();
+
+		// Intermediate files
+		File intraFile = null;
+		File timingFile = null;
+		File noDuplicateFile = null;
+		if (writeIntermediateFiles) {
+			intraFile = new File(outputPath + ".intra");
+			timingFile = new File(outputPath + ".timing");
+			noDuplicateFile = new File(outputPath + ".nodup");
+		}
+
+		// HiC actions
+		File hicInputFile = new File(hicInputPath);
+		File outputFile = new File(outputPath);
+		ExtractChromosomeRegion extractAction = new ExtractChromosomeRegion(hicInputFile, intraFile, ExtractChromosomeRegion.INTRA_CHROMOSOME);
+		extractAction.setReadingMode(FileExtractor.CHUNK_MODE);
+		MergeHiCWithTiming mergeAction = new MergeHiCWithTiming(intraFile, timingFile, index);
+		mergeAction.setMode(MergeHiCWithTiming.CURSOR_MODE);
+		RemoveDuplicateHiCTiming duplicateAction = new RemoveDuplicateHiCTiming(timingFile, noDuplicateFile);
+		RemoveClosePositionHiCTiming closeAction = new RemoveClosePositionHiCTiming(noDuplicateFile, outputFile, 100000);
+
+		Pipeline pipeline = new Pipeline(extractAction);
+		pipeline.add(mergeAction, intraFile);
+		pipeline.add(duplicateAction, timingFile);
+		pipeline.add(closeAction, noDuplicateFile);
+		pipeline.actionPerformed(null);
+	}
+
+
+	/**
+	 * Splits a HiC file in inter and intra chromosome lines, merges both with the Gilbert and the Desprat timing data and removes their duplicates
+	 * (and the lines where positions are too close for the intra chromosome lines), as a {@link Workflow}:
+	 * the independent steps run at the same time and the files already up to date are not written again.
+	 * The files are written next to the HiC file (eg: HiC.inter.timing-gilbert.nodup.txt, HiC.intra.timing-desprat.removal-inf-100kb.nodup.txt).
+	 * @param hicInputPath		the input path of the HiC file
+	 * @param gilbertInputPath	the input path of the Gilbert timing file
+	 * @param despratInputPath	the input path of the Desprat timing file
+	 * @return true if every file has been written or was up to date, false otherwise
+	 */
+	public static boolean processHiCWithTimingWorkflow(String hicInputPath, String gilbertInputPath, String despratInputPath) {
+		String basePath = hicInputPath;
+		if (basePath.endsWith(".txt")) {
+			basePath = basePath.substring(0, basePath.length() - 4);
+		}
+		String[] timingInputPaths = new String[] {gilbertInputPath, despratInputPath};
+		String[] timingNames = new String[] {"gilbert", "desprat"};
+		int[] timingOptions = new int[] {TimingListExtractor.GILBERT_FORMAT_INPUT, TimingListExtractor.DESPRAT_FORMAT_INPUT};
+
+		Workflow workflow = new Workflow();
+		for (int extractOption: new int[] {ExtractChromosomeRegion.INTER_CHROMOSOME, ExtractChromosomeRegion.INTRA_CHROMOSOME}) {
+			boolean isIntra = extractOption == ExtractChromosomeRegion.INTRA_CHROMOSOME;
+			String hicPath = basePath + (isIntra ? ".intra" : ".inter");
+			workflow.add(newSplitStep(hicInputPath, hicPath + ".txt", extractOption));
+			for (int i = 0; i < timingNames.length; i++) {
+				String timingPath = hicPath + ".timing-" + timingNames[i];
+				workflow.add(newMergeTimingStep(timingInputPaths[i], hicPath + ".txt", timingPath + ".txt", timingOptions[i]));
+				if (isIntra) {
+					workflow.add(newRemoveCloseStep(timingPath + ".txt", timingPath + ".removal-inf-100kb.txt"));
+					timingPath += ".removal-inf-100kb";
+				}
+				workflow.add(newRemoveDuplicateStep(timingPath + ".txt", timingPath + ".nodup.txt"));
+			}
+		}
+		return workflow.run();
+	}
+
+
+	/**
+	 * @param inputPath		the input file path
+	 * @param outputPath	the output file path
+	 * @param extractOption	inter or intra chromosome (see {@link ExtractChromosomeRegion})
+	 * @return a workflow step splitting a HiC file (see {@link #splitHiC(String, String, int)})
+	 */
+	private static WorkflowStep newSplitStep(final String inputPath, final String outputPath, final int extractOption) {
+		return new WorkflowStep("Split HiC file: " + outputPath, new String[] {inputPath}, new String[] {outputPath}) {
+			@Override
+			protected boolean run(String[] outputPaths) {
+				return splitHiC(inputPath, outputPaths[0], extractOption);
+			}
+		};
+	}
+
+
+	/**
+	 * @param timingInputPath		the input path of the timing file
+	 * @param hicInputPath			the input path of the HiC file
+	 * @param hicTimingOutputPath	the output path of the HiC/timing file
+	 * @param extractOption			Desprat or Gilbert (see {@link TimingListExtractor})
+	 * @return a workflow step merging HiC data with timing data (see {@link #mergeHiCWithFilTiming(String, String, String, int)})
+	 */
+	private static WorkflowStep newMergeTimingStep(final String timingInputPath, final String hicInputPath, final String hicTimingOutputPath, final int extractOption) {
+		return new WorkflowStep("Merge with timing: " + hicTimingOutputPath, new String[] {timingInputPath, hicInputPath}, new String[] {hicTimingOutputPath}) {
+			@Override
+			protected boolean run(String[] outputPaths) {
+				return mergeHiCWithFilTiming(timingInputPath, hicInputPath, outputPaths[0], extractOption);
+			}
+		};
+	}
+
+
+	/**
+	 * @param inputPath		the input file path
+	 * @param outputPath	the output file path
+	 * @return a workflow step removing the duplicated lines of a HiC/Timing file (see {@link #removeHiCTimingDuplicate(String, String)})
+	 */
+	private static WorkflowStep newRemoveDuplicateStep(final String inputPath, final String outputPath) {
+		return new WorkflowStep("Remove duplicates: " + outputPath, new String[] {inputPath}, new String[] {outputPath}) {
+			@Override
+			protected boolean run(String[] outputPaths) {
+				return removeHiCTimingDuplicate(inputPath, outputPaths[0]);
+			}
+		};
+	}
+
+
+	/**
+	 * @param inputPath		the input file path
+	 * @param outputPath	the output file path
+	 * @return a workflow step removing the HiC/Timing lines where positions are too close (see {@link #removeCloseIntraLines(String, String)})
+	 */
+	private static WorkflowStep newRemoveCloseStep(final String inputPath, final String outputPath) {
+		return new WorkflowStep("Remove close positions: " + outputPath, new String[] {inputPath}, new String[] {outputPath}) {
+			@Override
+			protected boolean run(String[] outputPaths) {
+				return removeCloseIntraLines(inputPath, outputPaths[0]);
+			}
+		};
 	}
 
 
@@ -169,26 +335,97 @@ public class Script {
 	 * @param threshold	the length threshold (no threshold: -1)
 	 * @param insertOption the Ori insert option (number or names) (see {@link MergeHiCTimingORIToFile}
 	 * @param clean true if the file has to be clean (no lines without Ori match), false to insert everything
+	 * @return true if the output file has been written, false otherwise
 	 */
-	public static void mergeHiCTimingWithORI(String oriInputPath, String hicTimingInputPath, String hicTimingOriOutputFile, int threshold, int insertOption, boolean clean) {
+	public static boolean mergeHiCTimingWithORI(String oriInputPath, String hicTimingInputPath, String hicTimingOriOutputFile, int threshold, int insertOption, boolean clean) {
 		File oriInputFile = new File(oriInputPath);
-		ORIListExtractor oriExtract = new ORIListExtractor(oriInputFile);
-		oriExtract.actionPerformed(null);
-		List<ORILineFile> oriList = oriExtract.getList();
+		List<ORILineFile> oriList = getORIList(oriInputFile);
 
 		File inputFile = new File(hicTimingInputPath);
-		ExtractWindowsFromHicTiming hicExtract = new ExtractWindowsFromHicTiming(inputFile);
+		HicTimingLineFile hicTimingList = getHicTimingList(inputFile);
+		ExtractWindowsFromHicTiming hicExtract = new ExtractWindowsFromHicTiming(hicTimingList);
 		hicExtract.actionPerformed(null);
 		ChromosomeListOfLists<Integer> hicList = hicExtract.getList();
 
 		MergeHiCORIToChromosomeMap mergeMap = new MergeHiCORIToChromosomeMap(oriList, hicList, threshold);
+		mergeMap.setMode(MergeHiCORIToChromosomeMap.SWEEP_MODE);
 		mergeMap.actionPerformed(null);
-		List<Map<Integer, Map<Integer, List<Integer>>>> map = mergeMap.getList();
+		if (mergeMap.hasFailed()) {
+			System.err.println("The HiC/ORI map is not complete, nothing is written.");
+			return false;
+		}
+		List<HiCORIMap> map = mergeMap.getList();
 
 		File outputFile = new File(hicTimingOriOutputFile);
-		MergeHiCTimingORIToFile mergeFile = new MergeHiCTimingORIToFile(inputFile, outputFile, map, oriList, insertOption, clean);
+		MergeHiCTimingORIToFile mergeFile = new MergeHiCTimingORIToFile(hicTimingList, outputFile, map, oriList, insertOption, clean);
+		mergeFile.setMode(MergeHiCTimingORIToFile.CURSOR_MODE);
 		mergeFile.actionPerformed(null);
 
+		printMapStatistics(oriList, hicList, map);
+		return mergeFile.isSuccessful();
+
+		/*
+		 * File outputFile = new File(
+		 * "O:\\Montpellier\\GSE35156_GSM862723_hESC_HindIII_HiC.nodup.summary.inter.timing.nodup.clean.ori.txt"
+		 * ); MergeHiCTimingWithORI mergeORI = new
+		 * MergeHiCTimingWithORI(inputFile, outputFile, oriList);
+		 * mergeORI.actionPerformed(null);
+		 */
+	}
+
+
+	/**
+	 * Merge HiC/Timing data with Ori data for several thresholds and options, the HiC/Timing lines are loaded once (see {@link #getHicTimingList(File)})
+	 * @param oriInputPath				the Ori input file
+	 * @param hicTimingInputPath		the HiC/Timing input file
+	 * @param hicTimingOriOutputFiles	the HiC/Timing/Ori output files
+	 * @param thresholds	the length thresholds (no threshold: -1), by output file
+	 * @param insertOptions the Ori insert options (number or names) (see {@link MergeHiCTimingORIToFile}), by output file
+	 * @param cleans true if the file has to be clean (no lines without Ori match), false to insert everything, by output file
+	 * @return true if all the output files have been written, false otherwise
+	 */
+	public static boolean mergeHiCTimingWithORI(String oriInputPath, String hicTimingInputPath, String[] hicTimingOriOutputFiles, int[] thresholds, int[] insertOptions, boolean[] cleans) {
+		File oriInputFile = new File(oriInputPath);
+		List<ORILineFile> oriList = getORIList(oriInputFile);
+
+		File inputFile = new File(hicTimingInputPath);
+		HicTimingLineFile hicTimingList = getHicTimingList(inputFile);
+		ExtractWindowsFromHicTiming hicExtract = new ExtractWindowsFromHicTiming(hicTimingList);
+		hicExtract.actionPerformed(null);
+		ChromosomeListOfLists<Integer> hicList = hicExtract.getList();
+
+		// a map built without threshold keeps the distances of the ORI: it is read with the threshold of every output
+		MergeHiCORIToChromosomeMap mergeMap = new MergeHiCORIToChromosomeMap(oriList, hicList, -1);
+		mergeMap.setMode(MergeHiCORIToChromosomeMap.SWEEP_MODE);
+		mergeMap.actionPerformed(null);
+		if (mergeMap.hasFailed()) {
+			System.err.println("The HiC/ORI map is not complete, nothing is written.");
+			return false;
+		}
+		List<HiCORIMap> map = mergeMap.getList();
+		printMapStatistics(oriList, hicList, map);
+
+		// every output walks the lines already loaded, the text file is not parsed again
+		boolean isSuccessful = true;
+		for (int i = 0; i < hicTimingOriOutputFiles.length; i++) {
+			File outputFile = new File(hicTimingOriOutputFiles[i]);
+			MergeHiCTimingORIToFile mergeFile = new MergeHiCTimingORIToFile(hicTimingList, outputFile, map, oriList, insertOptions[i], cleans[i]);
+			mergeFile.setThreshold(thresholds[i]);
+			mergeFile.setMode(MergeHiCTimingORIToFile.CURSOR_MODE);
+			mergeFile.actionPerformed(null);
+			isSuccessful &= mergeFile.isSuccessful();
+		}
+		return isSuccessful;
+	}
+
+
+	/**
+	 * Prints the number of ORI, HiC positions and HiC positions related to ORI of every chromosome
+	 * @param oriList	the ORI lists
+	 * @param hicList	the HiC position lists
+	 * @param map		the maps between HiC positions and ORI
+	 */
+	private static void printMapStatistics(List<ORILineFile> oriList, ChromosomeListOfLists<Integer> hicList, List<HiCORIMap> map) {
 		int totalORI = 0;
 		int totalHiC = 0;
 		int totalMap = 0;
@@ -215,13 +452,82 @@ public class Script {
 		System.out.println("Total HiC: " + totalHiC);
 		System.out.println("Total map: " + totalMap);
 		//System.out.println("Total ORI from map: " + totalMapORI);
+	}
 
-		/*
-		 * File outputFile = new File(
-		 * "O:\\Montpellier\\GSE35156_GSM862723_hESC_HindIII_HiC.nodup.summary.inter.timing.nodup.clean.ori.txt"
-		 * ); MergeHiCTimingWithORI mergeORI = new
-		 * MergeHiCTimingWithORI(inputFile, outputFile, oriList);
-		 * mergeORI.actionPerformed(null);
-		 */
+
+	/**
+	 * Get the lines of a HiC/Timing file.
+	 * The lines are loaded from the binary file next to the text file (see {@link HicTimingLineFile#EXTENSION}) when it is newer than the text file,
+	 * otherwise the text file is parsed and the binary file is (re)created for the next runs if the whole file has been read.
+	 * @param inputFile	the HiC/Timing input file
+	 * @return the lines of the file
+	 */
+	public static HicTimingLineFile getHicTimingList (File inputFile) {
+		File binaryFile = new File(inputFile.getPath() + "." + HicTimingLineFile.EXTENSION);
+		if (isBinaryFileUpToDate(inputFile, binaryFile)) {
+			try {
+				return HicTimingLineFile.load(binaryFile);
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+
+		HicTimingListExtractor extractor = new HicTimingListExtractor(inputFile);
+		extractor.setReadingMode(FileExtractor.CHUNK_MODE);
+		extractor.actionPerformed(null);
+		HicTimingLineFile list = extractor.getList();
+		if (extractor.isSuccessful()) {
+			try {
+				list.save(binaryFile);
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+		return list;
+	}
+
+
+	/**
+	 * A binary file written in the same millisecond as its text file is not trusted: the text file may have been modified after it.
+	 * @param inputFile		a text input file
+	 * @param binaryFile	the binary file of the text file
+	 * @return true if the text file exists and the binary file has been written after it, false otherwise
+	 */
+	private static boolean isBinaryFileUpToDate (File inputFile, File binaryFile) {
+		return inputFile.isFile() && binaryFile.isFile() && (binaryFile.lastModified() > inputFile.lastModified());
+	}
+
+
+	/**
+	 * Get the ORI of an ORI file, sorted by position on each chromosome.
+	 * The ORI are loaded from the binary file next to the text file (see {@link ORILineFile#EXTENSION}) when it is newer than the text file,
+	 * otherwise the text file is parsed and the binary file is (re)created for the next runs if the whole file has been read.
+	 * @param inputFile	the ORI input file
+	 * @return the ORI of the file, one list per chromosome
+	 */
+	public static List<ORILineFile> getORIList (File inputFile) {
+		File binaryFile = new File(inputFile.getPath() + "." + ORILineFile.EXTENSION);
+		if (isBinaryFileUpToDate(inputFile, binaryFile)) {
+			try {
+				return ORILineFile.load(binaryFile);
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+
+		ORIListExtractor extractor = new ORIListExtractor(inputFile);
+		extractor.actionPerformed(null);
+		List<ORILineFile> list = extractor.getList();
+		for (ORILineFile current: list) {
+			current.sort();
+		}
+		if (extractor.isSuccessful()) {
+			try {
+				ORILineFile.save(list, binaryFile);
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+		return list;
 	}
 }
@@ -0,0 +1,232 @@
+/*******************************************************************************
+ * Montpellier Biology Developpment
+ * This project aims to create a tool to process and analyse data of a project in the field of Biology.
+ * Copyright (C) 2012, Nicolas Fourel
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Authors:
+ * 	Nicolas Fourel <nicolas.fourel@live.fr>
+ * 	Romain Desprat <rdesprat@gmail.com>
+ ******************************************************************************/
+package core.script;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+
+/**
+ * A {@link Workflow} runs {@link WorkflowStep} in the order given by their files: a step starts once the steps writing its input files are done.
+ * Independent steps run at the same time on a thread pool.
+ * A step is skipped when it is up to date (see {@link WorkflowStep#isUpToDate()}) and none of the steps it depends on has run:
+ * the files written by a previous run are reused as long as their inputs are unchanged.
+ * A step fails when it throws an exception, returns false or does not write all its output files (see {@link WorkflowStep#execute()}),
+ * its output files are then left as they were. The steps depending on it are cancelled, the other ones still run.
+ * @author Nicolas Fourel
+ * @version 0.1
+ */
+public class Workflow {
+
+	private final List<WorkflowStep> steps;	// The steps of the workflow.
+	private int threadNumber;				// The number of steps that can run at the same time.
+
+	private List<List<Integer>> dependents;	// The indexes of the steps depending on a step, by step index.
+	private int[] dependencyNumbers;		// The number of steps a step still waits for, by step index.
+	private boolean[] hasRun;				// Says if a step has run (and written its output files), by step index.
+	private boolean[] mustRun;				// Says if a step must run even if it is up to date (a step it depends on has run), by step index.
+	private boolean[] hasFailed;			// Says if a step (or a step it depends on) has failed, by step index.
+
+
+	/**
+	 * Constructor of {@link Workflow}
+	 */
+	public Workflow () {
+		steps = new ArrayList<>();
+		threadNumber = Runtime.getRuntime().availableProcessors();
+	}
+
+
+	/**
+	 * Adds a step to the workflow
+	 * @param step a step
+	 */
+	public void add (WorkflowStep step) {
+		steps.add(step);
+	}
+
+
+	/**
+	 * @param threadNumber the number of steps that can run at the same time
+	 */
+	public void setThreadNumber (int threadNumber) {
+		this.threadNumber = Math.max(1, threadNumber);
+	}
+
+
+	/**
+	 * Runs the steps of the workflow
+	 * @return true if every step has run or was up to date, false if a step has failed or if the workflow is not valid
+	 */
+	public boolean run () {
+		if (!link() || !isAcyclic()) {
+			return false;
+		}
+
+		int size = steps.size();
+		hasRun = new boolean[size];
+		mustRun = new boolean[size];
+		hasFailed = new boolean[size];
+		boolean isValid = true;
+		ExecutorService executor = Executors.newFixedThreadPool(threadNumber);
+		try {
+			CompletionService<Integer> completion = new ExecutorCompletionService<>(executor);
+			for (int index = 0; index < size; index++) {
+				if (dependencyNumbers[index] == 0) {
+					completion.submit(new StepJob(index));
+				}
+			}
+			for (int done = 0; done < size; done++) {
+				int index = completion.take().get();
+				isValid &= !hasFailed[index];
+				for (int dependent: dependents.get(index)) {
+					mustRun[dependent] |= hasRun[index];
+					hasFailed[dependent] |= hasFailed[index];
+					dependencyNumbers[dependent]--;
+					if (dependencyNumbers[dependent] == 0) {
+						completion.submit(new StepJob(dependent));
+					}
+				}
+			}
+		} catch (Exception e) {
+			e.printStackTrace();
+			isValid = false;
+		} finally {
+			executor.shutdownNow();
+		}
+		return isValid;
+	}
+
+
+	/**
+	 * Makes every step depend on the steps writing its input files
+	 * @return true if every file is written by one step at most, false otherwise
+	 */
+	private boolean link () {
+		int size = steps.size();
+		Map<File, Integer> producers = new HashMap<>();
+		for (int index = 0; index < size; index++) {
+			for (File outputFile: steps.get(index).getOutputFiles()) {
+				if (producers.put(outputFile, index) != null) {
+					System.err.println("The file is written by several steps: " + outputFile);
+					return false;
+				}
+			}
+		}
+
+		dependents = new ArrayList<>();
+		dependencyNumbers = new int[size];
+		for (int index = 0; index < size; index++) {
+			dependents.add(new ArrayList<Integer>());
+		}
+		for (int index = 0; index < size; index++) {
+			for (File inputFile: steps.get(index).getInputFiles()) {
+				Integer producer = producers.get(inputFile);
+				if ((producer != null) && (producer != index)) {
+					dependents.get(producer).add(index);
+					dependencyNumbers[index]++;
+				}
+			}
+		}
+		return true;
+	}
+
+
+	/**
+	 * @return true if no step depends (directly or not) on itself, false otherwise
+	 */
+	private boolean isAcyclic () {
+		int size = steps.size();
+		int[] remainingNumbers = dependencyNumbers.clone();
+		List<Integer> readySteps = new ArrayList<>();
+		for (int index = 0; index < size; index++) {
+			if (remainingNumbers[index] == 0) {
+				readySteps.add(index);
+			}
+		}
+		int sortedNumber = 0;
+		while (!readySteps.isEmpty()) {
+			int index = readySteps.remove(readySteps.size() - 1);
+			sortedNumber++;
+			for (int dependent: dependents.get(index)) {
+				remainingNumbers[dependent]--;
+				if (remainingNumbers[dependent] == 0) {
+					readySteps.add(dependent);
+				}
+			}
+		}
+		if (sortedNumber < size) {
+			System.err.println("The steps of the workflow depend on each other.");
+			return false;
+		}
+		return true;
+	}
+
+
+	/**
+	 * Runs a step if it has to, in a thread of the pool
+	 */
+	private class StepJob implements Callable<Integer> {
+
+		private final int index;	// The index of the step.
+
+
+		/**
+		 * Constructor of {@link StepJob}
+		 * @param index the index of the step
+		 */
+		private StepJob (int index) {
+			this.index = index;
+		}
+
+
+		@Override
+		public Integer call() {
+			WorkflowStep step = steps.get(index);
+			if (hasFailed[index]) {
+				System.out.println("Step cancelled: " + step.getName());
+			} else if (!mustRun[index] && step.isUpToDate()) {
+				System.out.println("Step up to date: " + step.getName());
+			} else {
+				System.out.println("Step start: " + step.getName());
+				if (step.execute()) {
+					hasRun[index] = true;
+					System.out.println("Step done: " + step.getName());
+				} else {
+					System.err.println("Step failed: " + step.getName());
+					hasFailed[index] = true;
+				}
+			}
+			return index;
+		}
+	}
+
+}
@@ -0,0 +1,167 @@
+/*******************************************************************************
+ * Montpellier Biology Developpment
+ * This project aims to create a tool to process and analyse data of a project in the field of Biology.
+ * Copyright (C) 2012, Nicolas Fourel
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Authors:
+ * 	Nicolas Fourel <nicolas.fourel@live.fr>
+ * 	Romain Desprat <rdesprat@gmail.com>
+ ******************************************************************************/
+package core.script;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * A {@link WorkflowStep} is a step of a {@link Workflow}: it reads input files and writes output files.
+ * The steps reading the output files of a step depend on it. A step is up to date when all its output files are more recent than all its input files.
+ * A step writes temporary files that replace its output files only if it succeeds: a failed step never leaves a partial output file.
+ * @author Nicolas Fourel
+ * @version 0.1
+ */
+public abstract class WorkflowStep {
+
+	/** Extension added to the output files while the step writes them */
+	public static final String TEMPORARY_EXTENSION = ".tmp";
+
+	private final String name;				// The name of the step.
+	private final List<File> inputFiles;	// The files read by the step.
+	private final List<File> outputFiles;	// The files written by the step.
+
+
+	/**
+	 * Constructor of {@link WorkflowStep}
+	 * @param name			the name of the step
+	 * @param inputPaths	the paths of the files read by the step
+	 * @param outputPaths	the paths of the files written by the step
+	 */
+	public WorkflowStep (String name, String[] inputPaths, String[] outputPaths) {
+		this.name = name;
+		inputFiles = new ArrayList<>();
+		for (String path: inputPaths) {
+			inputFiles.add(new File(path).getAbsoluteFile());
+		}
+		outputFiles = new ArrayList<>();
+		for (String path: outputPaths) {
+			outputFiles.add(new File(path).getAbsoluteFile());
+		}
+	}
+
+
+	/**
+	 * Runs the step: writes the output files from the input files, to the given paths
+	 * @param outputPaths	the paths to write the output files to, in the order of the output files
+	 * @return true if the step succeeded, false otherwise
+	 */
+	protected abstract boolean run (String[] outputPaths);
+
+
+	/**
+	 * Runs the step on temporary files, they replace the output files only if the step succeeds and has written all of them
+	 * @return true if the step succeeded, false otherwise
+	 */
+	public boolean execute () {
+		List<File> temporaryFiles = new ArrayList<>();
+		String[] temporaryPaths = new String[outputFiles.size()];
+		for (int i = 0; i < outputFiles.size(); i++) {
+			File temporaryFile = new File(outputFiles.get(i).getPath() + TEMPORARY_EXTENSION);
+			temporaryFile.delete();
+			temporaryFiles.add(temporaryFile);
+			temporaryPaths[i] = temporaryFile.getPath();
+		}
+
+		boolean isSuccessful = false;
+		try {
+			isSuccessful = run(temporaryPaths);
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+		for (File temporaryFile: temporaryFiles) {
+			if (!temporaryFile.isFile()) {
+				isSuccessful = false;
+			}
+		}
+
+		try {
+			for (int i = 0; isSuccessful && (i < outputFiles.size()); i++) {
+				Files.move(temporaryFiles.get(i).toPath(), outputFiles.get(i).toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+			isSuccessful = false;
+		}
+		if (!isSuccessful) {
+			for (File temporaryFile: temporaryFiles) {
+				temporaryFile.delete();
+			}
+		}
+		return isSuccessful;
+	}
+
+
+	/**
+	 * The comparison is strict: an output file written within the time resolution of the file system after an input file is not considered up to date.
+	 * @return true if all the output files exist and are more recent than all the input files, false otherwise
+	 */
+	public boolean isUpToDate () {
+		if (outputFiles.isEmpty()) {
+			return false;
+		}
+		long inputTime = 0;
+		for (File inputFile: inputFiles) {
+			if (!inputFile.isFile()) {
+				return false;
+			}
+			inputTime = Math.max(inputTime, inputFile.lastModified());
+		}
+		for (File outputFile: outputFiles) {
+			if (!outputFile.isFile() || (outputFile.lastModified() <= inputTime)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+
+	/**
+	 * @return the name of the step
+	 */
+	public String getName () {
+		return name;
+	}
+
+
+	/**
+	 * @return the files read by the step
+	 */
+	public List<File> getInputFiles () {
+		return inputFiles;
+	}
+
+
+	/**
+	 * @return the files written by the step
+	 */
+	public List<File> getOutputFiles () {
+		return outputFiles;
+	}
+
+}
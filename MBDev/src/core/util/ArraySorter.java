@@ -0,0 +1,274 @@
+/*******************************************************************************
+ * Montpellier Biology Developpment
+ * This project aims to create a tool to process and analyse data of a project in the field of Biology.
+ * Copyright (C) 2012, Nicolas Fourel
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Authors:
+ * 	Nicolas Fourel <nicolas.fourel@live.fr>
+ * 	Romain Desprat <rdesprat@gmail.com>
+ ******************************************************************************/
+package core.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+
+/**
+ * Sorts regions of primitive arrays, sequentially or in parallel.
+ * The parallel sort is a fork/join merge sort: the region is split until its parts are small enough to be sorted with {@link Arrays},
+ * then the sorted parts are merged. The order is the same as the one of {@link Arrays#sort(float[])} and {@link Arrays#sort(double[])}.
+ * @author Nicolas Fourel
+ * @version 0.1
+ */
+public class ArraySorter {
+
+	/** Number of values under which a region is sorted sequentially */
+	public static final int SEQUENTIAL_THRESHOLD = 1 << 13;
+
+	private static final ForkJoinPool POOL = new ForkJoinPool();	// The pool running the parallel sorts.
+
+
+	/**
+	 * Sorts a region of an array in parallel
+	 * @param data	the array
+	 * @param start	index of the first value to sort
+	 * @param stop	index right after the last value to sort
+	 */
+	public static void parallelSort (int[] data, int start, int stop) {
+		if ((stop - start) <= SEQUENTIAL_THRESHOLD) {
+			Arrays.sort(data, start, stop);
+		} else {
+			invoke(new IntSortTask(data, new int[stop - start], start, stop, start));
+		}
+	}
+
+
+	/**
+	 * Sorts a region of an array in parallel
+	 * @param data	the array
+	 * @param start	index of the first value to sort
+	 * @param stop	index right after the last value to sort
+	 */
+	public static void parallelSort (float[] data, int start, int stop) {
+		if ((stop - start) <= SEQUENTIAL_THRESHOLD) {
+			Arrays.sort(data, start, stop);
+		} else {
+			invoke(new FloatSortTask(data, new float[stop - start], start, stop, start));
+		}
+	}
+
+
+	/**
+	 * Sorts a region of an array in parallel
+	 * @param data	the array
+	 * @param start	index of the first value to sort
+	 * @param stop	index right after the last value to sort
+	 */
+	public static void parallelSort (double[] data, int start, int stop) {
+		if ((stop - start) <= SEQUENTIAL_THRESHOLD) {
+			Arrays.sort(data, start, stop);
+		} else {
+			invoke(new DoubleSortTask(data, new double[stop - start], start, stop, start));
+		}
+	}
+
+
+	/**
+	 * Runs jobs concurrently in the pool of the parallel sorts and waits for all of them.
+	 * The parallel sorts started by the jobs share the same pool.
+	 * @param jobs the jobs
+	 */
+	public static void invokeAll (List<Runnable> jobs) {
+		final List<ForkJoinTask<?>> tasks = new ArrayList<>();
+		for (Runnable job: jobs) {
+			tasks.add(ForkJoinTask.adapt(job));
+		}
+		invoke(new RecursiveAction() {
+			private static final long serialVersionUID = -3962315302651475373L;
+			@Override
+			protected void compute() {
+				invokeAll(tasks);
+			}
+		});
+	}
+
+
+	/**
+	 * Runs a task in the pool, or directly if the current thread already belongs to it
+	 * @param task the task
+	 */
+	static void invoke (ForkJoinTask<?> task) {
+		if (ForkJoinTask.inForkJoinPool()) {
+			task.invoke();
+		} else {
+			POOL.invoke(task);
+		}
+	}
+
+
+	/**
+	 * Sorts a region of an int array. The buffer is shared by all the tasks of a sort, the offset gives the position of the region in it.
+	 */
+	private static class IntSortTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 7212564925466434958L;
+
+		private final int[] data;		// The array to sort.
+		private final int[] buffer;		// The merge buffer.
+		private final int start;		// Index of the first value to sort.
+		private final int stop;			// Index right after the last value to sort.
+		private final int offset;		// Index of the first value of the array in the buffer.
+
+
+		private IntSortTask (int[] data, int[] buffer, int start, int stop, int offset) {
+			this.data = data;
+			this.buffer = buffer;
+			this.start = start;
+			this.stop = stop;
+			this.offset = offset;
+		}
+
+
+		@Override
+		protected void compute() {
+			if ((stop - start) <= SEQUENTIAL_THRESHOLD) {
+				Arrays.sort(data, start, stop);
+			} else {
+				int middle = (start + stop) >>> 1;
+				invokeAll(new IntSortTask(data, buffer, start, middle, offset), new IntSortTask(data, buffer, middle, stop, offset));
+				if (data[middle - 1] > data[middle]) {
+					System.arraycopy(data, start, buffer, start - offset, middle - start);
+					int left = start - offset;
+					int leftStop = middle - offset;
+					int right = middle;
+					int index = start;
+					while ((left < leftStop) && (right < stop)) {
+						if (buffer[left] <= data[right]) {
+							data[index++] = buffer[left++];
+						} else {
+							data[index++] = data[right++];
+						}
+					}
+					System.arraycopy(buffer, left, data, index, leftStop - left);
+				}
+			}
+		}
+	}
+
+
+	/**
+	 * Sorts a region of a float array. The buffer is shared by all the tasks of a sort, the offset gives the position of the region in it.
+	 */
+	private static class FloatSortTask extends RecursiveAction {
+
+		private static final long serialVersionUID = -2286734941870424853L;
+
+		private final float[] data;		// The array to sort.
+		private final float[] buffer;	// The merge buffer.
+		private final int start;		// Index of the first value to sort.
+		private final int stop;			// Index right after the last value to sort.
+		private final int offset;		// Index of the first value of the array in the buffer.
+
+
+		private FloatSortTask (float[] data, float[] buffer, int start, int stop, int offset) {
+			this.data = data;
+			this.buffer = buffer;
+			this.start = start;
+			this.stop = stop;
+			this.offset = offset;
+		}
+
+
+		@Override
+		protected void compute() {
+			if ((stop - start) <= SEQUENTIAL_THRESHOLD) {
+				Arrays.sort(data, start, stop);
+			} else {
+				int middle = (start + stop) >>> 1;
+				invokeAll(new FloatSortTask(data, buffer, start, middle, offset), new FloatSortTask(data, buffer, middle, stop, offset));
+				if (Float.compare(data[middle - 1], data[middle]) > 0) {
+					System.arraycopy(data, start, buffer, start - offset, middle - start);
+					int left = start - offset;
+					int leftStop = middle - offset;
+					int right = middle;
+					int index = start;
+					while ((left < leftStop) && (right < stop)) {
+						if (Float.compare(buffer[left], data[right]) <= 0) {
+							data[index++] = buffer[left++];
+						} else {
+							data[index++] = data[right++];
+						}
+					}
+					System.arraycopy(buffer, left, data, index, leftStop - left);
+				}
+			}
+		}
+	}
+
+
+	/**
+	 * Sorts a region of a double array. The buffer is shared by all the tasks of a sort, the offset gives the position of the region in it.
+	 */
+	private static class DoubleSortTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 5338400478329616113L;
+
+		private final double[] data;	// The array to sort.
+		private final double[] buffer;	// The merge buffer.
+		private final int start;		// Index of the first value to sort.
+		private final int stop;			// Index right after the last value to sort.
+		private final int offset;		// Index of the first value of the array in the buffer.
+
+
+		private DoubleSortTask (double[] data, double[] buffer, int start, int stop, int offset) {
+			this.data = data;
+			this.buffer = buffer;
+			this.start = start;
+			this.stop = stop;
+			this.offset = offset;
+		}
+
+
+		@Override
+		protected void compute() {
+			if ((stop - start) <= SEQUENTIAL_THRESHOLD) {
+				Arrays.sort(data, start, stop);
+			} else {
+				int middle = (start + stop) >>> 1;
+				invokeAll(new DoubleSortTask(data, buffer, start, middle, offset), new DoubleSortTask(data, buffer, middle, stop, offset));
+				if (Double.compare(data[middle - 1], data[middle]) > 0) {
+					System.arraycopy(data, start, buffer, start - offset, middle - start);
+					int left = start - offset;
+					int leftStop = middle - offset;
+					int right = middle;
+					int index = start;
+					while ((left < leftStop) && (right < stop)) {
+						if (Double.compare(buffer[left], data[right]) <= 0) {
+							data[index++] = buffer[left++];
+						} else {
+							data[index++] = data[right++];
+						}
+					}
+					System.arraycopy(buffer, left, data, index, leftStop - left);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,114 @@
+/*******************************************************************************
+ * Montpellier Biology Developpment
+ * This project aims to create a tool to process and analyse data of a project in the field of Biology.
+ * Copyright (C) 2012, Nicolas Fourel
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Authors:
+ * 	Nicolas Fourel <nicolas.fourel@live.fr>
+ * 	Romain Desprat <rdesprat@gmail.com>
+ ******************************************************************************/
+package core.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+
+/**
+ * Runs the shards of a work, one per chromosome (or per chromosome pair), on the work-stealing pool of {@link ArraySorter}.
+ * The results are given back in the order of the shards whatever the order they have been computed in, so that an output merged from them does not depend on the scheduling.
+ * A failed shard makes the whole work fail: no partial result is given back.
+ * @author Nicolas Fourel
+ * @version 0.1
+ */
+public class ChromosomeShards {
+
+
+	/**
+	 * Runs shards concurrently and waits for all of them.
+	 * A shard that fails does not stop the other ones, its failure is thrown once all the shards are done.
+	 * @param shards the shards, in the order of the chromosomes
+	 * @return the results of the shards, in the same order
+	 * @throws ExecutionException if a shard has failed (the cause is the failure of the first failed shard, the other failures are suppressed)
+	 */
+	public static <T> List<T> invokeAll (List<? extends Callable<T>> shards) throws ExecutionException {
+		final List<ShardTask<T>> tasks = new ArrayList<>();
+		for (Callable<T> shard: shards) {
+			tasks.add(new ShardTask<>(shard));
+		}
+		ArraySorter.invoke(new RecursiveAction() {
+			private static final long serialVersionUID = 6236479823401377409L;
+			@Override
+			protected void compute() {
+				ForkJoinTask.invokeAll(tasks);
+			}
+		});
+
+		List<T> results = new ArrayList<>();
+		ExecutionException failure = null;
+		for (ShardTask<T> task: tasks) {
+			if (task.failure != null) {
+				if (failure == null) {
+					failure = new ExecutionException("A chromosome shard has failed.", task.failure);
+				} else {
+					failure.addSuppressed(task.failure);
+				}
+			}
+			results.add(task.getRawResult());
+		}
+		if (failure != null) {
+			throw failure;
+		}
+		return results;
+	}
+
+
+	/**
+	 * Computes one shard.
+	 */
+	private static class ShardTask<T> extends RecursiveTask<T> {
+
+		private static final long serialVersionUID = -1822370955437103290L;
+
+		private final Callable<T> shard;	// The shard to compute.
+		private Exception failure;			// The failure of the shard (null if it has succeeded).
+
+
+		/**
+		 * Constructor of {@link ShardTask}
+		 * @param shard the shard to compute
+		 */
+		private ShardTask (Callable<T> shard) {
+			this.shard = shard;
+		}
+
+
+		@Override
+		protected T compute() {
+			try {
+				return shard.call();
+			} catch (Exception e) {
+				failure = e;
+				return null;
+			}
+		}
+	}
+
+}
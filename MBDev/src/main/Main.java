@@ -64,30 +64,19 @@ public class Main {
 		
 		String hicTiming = "C:\\Nico\\GSE35156_GSM892307_IMR90_HindIII_HiC_replicate.nodup.hic.summary.intra.timing.removal-inf-100kb.nodup.clean.txt";
 		
-		String output = "C:\\Nico\\GSE35156_GSM892307_IMR90_HindIII_HiC_replicate.nodup.hic.summary.intra.timing.removal-inf-100kb.nodup.clean.ori-number-inf-2kb-clean.txt";
-		Script.mergeHiCTimingWithORI(ori, hicTiming, output, 2000, MergeHiCTimingORIToFile.NUMBER, true);
-		
-		output = "C:\\Nico\\GSE35156_GSM892307_IMR90_HindIII_HiC_replicate.nodup.hic.summary.intra.timing.removal-inf-100kb.nodup.clean.ori-number-inf-5kb-clean.txt";
-		Script.mergeHiCTimingWithORI(ori, hicTiming, output, 5000, MergeHiCTimingORIToFile.NUMBER, true);
-		
-		output = "C:\\Nico\\GSE35156_GSM892307_IMR90_HindIII_HiC_replicate.nodup.hic.summary.intra.timing.removal-inf-100kb.nodup.clean.ori-number-all-clean.txt";
-		Script.mergeHiCTimingWithORI(ori, hicTiming, output, -1, MergeHiCTimingORIToFile.NUMBER, true);
-	
-		
-		
-		output = "C:\\Nico\\GSE35156_GSM892307_IMR90_HindIII_HiC_replicate.nodup.hic.summary.intra.timing.removal-inf-100kb.nodup.clean.ori-names-inf-2kb-clean.txt";
-		Script.mergeHiCTimingWithORI(ori, hicTiming, output, 2000, MergeHiCTimingORIToFile.NAMES, true);
-		
-		output = "C:\\Nico\\GSE35156_GSM892307_IMR90_HindIII_HiC_replicate.nodup.hic.summary.intra.timing.removal-inf-100kb.nodup.clean.ori-names-inf-5kb-clean.txt";
-		Script.mergeHiCTimingWithORI(ori, hicTiming, output, 5000, MergeHiCTimingORIToFile.NAMES, true);
-		
-		output = "C:\\Nico\\GSE35156_GSM892307_IMR90_HindIII_HiC_replicate.nodup.hic.summary.intra.timing.removal-inf-100kb.nodup.clean.ori-names-all-clean.txt";
-		Script.mergeHiCTimingWithORI(ori, hicTiming, output, -1, MergeHiCTimingORIToFile.NAMES, true);
-		
-		
-		
+		String prefix = "C:\\Nico\\GSE35156_GSM892307_IMR90_HindIII_HiC_replicate.nodup.hic.summary.intra.timing.removal-inf-100kb.nodup.clean.";
+		String[] outputs = new String[] {prefix + "ori-number-inf-2kb-clean.txt", prefix + "ori-number-inf-5kb-clean.txt", prefix + "ori-number-all-clean.txt",
+				prefix + "ori-names-inf-2kb-clean.txt", prefix + "ori-names-inf-5kb-clean.txt", prefix + "ori-names-all-clean.txt"};
+		int[] thresholds = new int[] {2000, 5000, -1, 2000, 5000, -1};
+		int[] insertOptions = new int[] {MergeHiCTimingORIToFile.NUMBER, MergeHiCTimingORIToFile.NUMBER, MergeHiCTimingORIToFile.NUMBER,
+				MergeHiCTimingORIToFile.NAMES, MergeHiCTimingORIToFile.NAMES, MergeHiCTimingORIToFile.NAMES};
+		boolean[] cleans = new boolean[] {true, true, true, true, true, true};
+		Script.mergeHiCTimingWithORI(ori, hicTiming, outputs, thresholds, insertOptions, cleans);
+
+
+
 		hicTiming = "C:\\Nico\\GSE35156_GSM892307_IMR90_HindIII_HiC_replicate.nodup.hic.summary.inter.timing.nodup.clean.txt";
-		output = "C:\\Nico\\GSE35156_GSM892307_IMR90_HindIII_HiC_replicate.nodup.hic.summary.inter.timing.nodup.clean.ori-names-all-clean.txt";
+		String output = "C:\\Nico\\GSE35156_GSM892307_IMR90_HindIII_HiC_replicate.nodup.hic.summary.inter.timing.nodup.clean.ori-names-all-clean.txt";
 		Script.mergeHiCTimingWithORI(ori, hicTiming, output, -1, MergeHiCTimingORIToFile.NAMES, true);
 	}
 